@@ -0,0 +1,47 @@
+package org.zapphyre.dtw;
+
+import org.openjdk.jmh.annotations.*;
+import org.zapphyre.model.PolarCoords;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PolarCoordsSamplerBenchmark {
+
+    @Param({"100", "1000", "5000"})
+    int samples;
+
+    List<PolarCoordsSampler.TimedPolarCoords> input;
+    Duration interval = Duration.ofMillis(5);
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        input = new ArrayList<>(samples);
+        long timestamp = 0;
+        for (PolarCoords coords : SimpleDTWBenchmark.trace(random, samples)) {
+            timestamp += 1 + random.nextInt(15); // irregular polling, 1..15 ms apart
+            input.add(new PolarCoordsSampler.TimedPolarCoords(coords, timestamp));
+        }
+    }
+
+    @Benchmark
+    public List<PolarCoords> interpolate() {
+        return PolarCoordsSampler.interpolate(input, interval);
+    }
+
+    @Benchmark
+    public List<PolarCoords> resample() {
+        return PolarCoordsSampler.resample(Flux.fromIterable(input), interval).collectList().block();
+    }
+}
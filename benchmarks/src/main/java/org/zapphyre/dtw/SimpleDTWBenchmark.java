@@ -0,0 +1,75 @@
+package org.zapphyre.dtw;
+
+import org.openjdk.jmh.annotations.*;
+import org.zapphyre.model.PolarCoords;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimpleDTWBenchmark {
+
+    @Param({"64", "256", "1024"})
+    int seriesLength;
+
+    SimpleDTW dtw;
+    SimpleDTW banded;
+    FastDTW fast;
+    List<PolarCoords> series1;
+    List<PolarCoords> series2;
+    PolarSeries primitive1;
+    PolarSeries primitive2;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        dtw = new SimpleDTW(new PolarDistanceFunction());
+        banded = new SimpleDTW(new PolarDistanceFunction(), WarpingWindow.sakoeChiba(seriesLength / 10));
+        fast = new FastDTW(new PolarDistanceFunction(), 10);
+        series1 = trace(random, seriesLength);
+        series2 = trace(random, seriesLength);
+        primitive1 = PolarSeries.of(series1);
+        primitive2 = PolarSeries.of(series2);
+    }
+
+    @Benchmark
+    public double compute() {
+        return dtw.compute(series1, series2);
+    }
+
+    @Benchmark
+    public double computePrimitive() {
+        return dtw.compute(primitive1, primitive2);
+    }
+
+    @Benchmark
+    public double computeBanded() {
+        return banded.compute(series1, series2);
+    }
+
+    @Benchmark
+    public double computeFast() {
+        return fast.compute(primitive1, primitive2);
+    }
+
+    /**
+     * Random walk in polar space, roughly what a joystick produces between two samples.
+     */
+    static List<PolarCoords> trace(Random random, int length) {
+        double radius = 0;
+        double theta = 0;
+        PolarCoords[] trace = new PolarCoords[length];
+        for (int i = 0; i < length; i++) {
+            radius = Math.max(0, Math.min(32_767, radius + random.nextGaussian() * 500));
+            theta = (theta + random.nextGaussian() * 0.1 + 2 * Math.PI) % (2 * Math.PI);
+            trace[i] = PolarCoords.builder().radius(radius).theta(theta).build();
+        }
+        return List.of(trace);
+    }
+}
@@ -0,0 +1,49 @@
+package org.zapphyre.dtw;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class VectorizedDTWBenchmark {
+
+    @Param({"64", "256", "1024"})
+    int seriesLength;
+
+    SimpleDTW simple;
+    VectorizedDTW scalar;
+    VectorizedDTW vector;
+    PolarSeries series1;
+    PolarSeries series2;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        simple = new SimpleDTW(new PolarDistanceFunction());
+        scalar = VectorizedDTW.scalar();
+        vector = VectorizedDTW.create();
+        series1 = PolarSeries.of(SimpleDTWBenchmark.trace(random, seriesLength));
+        series2 = PolarSeries.of(SimpleDTWBenchmark.trace(random, seriesLength));
+    }
+
+    @Benchmark
+    public double simple() {
+        return simple.compute(series1, series2);
+    }
+
+    @Benchmark
+    public double antiDiagonalScalar() {
+        return scalar.compute(series1, series2);
+    }
+
+    @Benchmark
+    public double antiDiagonalVector() {
+        return vector.compute(series1, series2);
+    }
+}
@@ -0,0 +1,55 @@
+package org.zapphyre.fizzy.grid;
+
+import org.openjdk.jmh.annotations.*;
+import org.zapphyre.model.DirectedCoords;
+import org.zapphyre.model.ENextNodeDirection;
+import org.zapphyre.model.PolarCoords;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-sample cost of the gesture grid: one {@code directionFromTheta} and one {@code movement} per joystick sample.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NodeBenchmark {
+    static final int SAMPLES = 1024;
+
+    Node node;
+    PolarCoords[] samples;
+    DirectedCoords[] directed;
+    int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        node = new Node(3_000, Math.toRadians(90), 0, 0, ENextNodeDirection.CENTER, "0");
+        samples = new PolarCoords[SAMPLES];
+        directed = new DirectedCoords[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            samples[i] = PolarCoords.builder()
+                    .radius(random.nextDouble() * 32_767)
+                    .theta(random.nextDouble() * 2 * Math.PI)
+                    .build();
+            directed[i] = node.directionFromTheta(samples[i]);
+        }
+    }
+
+    @Benchmark
+    public DirectedCoords directionFromTheta() {
+        return node.directionFromTheta(samples[next++ & (SAMPLES - 1)]);
+    }
+
+    /**
+     * Movement from the root node only, so the benchmark does not grow the node graph between iterations.
+     */
+    @Benchmark
+    public Node movement() {
+        return node.movement(directed[next++ & (SAMPLES - 1)]);
+    }
+}
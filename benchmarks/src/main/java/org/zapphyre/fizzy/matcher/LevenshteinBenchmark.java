@@ -0,0 +1,59 @@
+package org.zapphyre.fizzy.matcher;
+
+import org.openjdk.jmh.annotations.*;
+import org.zapphyre.fizzy.matcher.edit.ClassicEditDistance;
+import org.zapphyre.fizzy.model.ToleranceConfig;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LevenshteinBenchmark {
+
+    @Param({"8", "32", "64", "128"})
+    int length;
+
+    Matcher<String> bitParallel;
+    Matcher<String> classic;
+    String s1;
+    String s2;
+
+    @Setup
+    public void setUp() {
+        ToleranceConfig config = ToleranceConfig.builder()
+                .frequencyTolerancePercent(10.0)
+                .orderEditDistanceRatio(0.2)
+                .maxConsecutiveDrop(2)
+                .build();
+        bitParallel = Matcher.<String>builder().matchDefs(List.of()).toleranceConfig(config).build();
+        classic = Matcher.<String>builder().matchDefs(List.of()).toleranceConfig(config)
+                .editDistance(new ClassicEditDistance())
+                .build();
+
+        Random random = new Random(42);
+        s1 = digits(random, length);
+        s2 = digits(random, length);
+    }
+
+    @Benchmark
+    public int computeLevenshtein() {
+        return bitParallel.computeLevenshtein(s1, s2);
+    }
+
+    @Benchmark
+    public int computeLevenshteinClassic() {
+        return classic.computeLevenshtein(s1, s2);
+    }
+
+    static String digits(Random random, int length) {
+        StringBuilder s = new StringBuilder(length);
+        for (int i = 0; i < length; i++) s.append((char) ('0' + random.nextInt(4)));
+        return s.toString();
+    }
+}
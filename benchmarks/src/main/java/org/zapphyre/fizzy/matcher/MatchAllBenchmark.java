@@ -0,0 +1,61 @@
+package org.zapphyre.fizzy.matcher;
+
+import org.openjdk.jmh.annotations.*;
+import org.zapphyre.fizzy.model.MatchDef;
+import org.zapphyre.fizzy.model.MatchResult;
+import org.zapphyre.fizzy.model.ToleranceConfig;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Batch matching against matching the same distinct inputs one by one on the calling thread.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatchAllBenchmark {
+
+    @Param({"64", "1024"})
+    int batchSize;
+
+    @Param({"1000"})
+    int templateCount;
+
+    Matcher<Integer> matcher;
+    List<String> inputs;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        matcher = Matcher.<Integer>create(IntStream.range(0, templateCount)
+                        .mapToObj(key -> MatchDef.<Integer>builder()
+                                .key(key)
+                                .knownValues(List.of(MatcherBenchmark.path(random, 64)))
+                                .build())
+                        .toList())
+                .withTolerances(ToleranceConfig.builder()
+                        .frequencyTolerancePercent(10.0)
+                        .orderEditDistanceRatio(0.2)
+                        .maxConsecutiveDrop(2)
+                        .build());
+        inputs = IntStream.range(0, batchSize)
+                .mapToObj(i -> MatcherBenchmark.path(random, 64))
+                .toList();
+    }
+
+    @Benchmark
+    public List<List<MatchResult<Integer>>> matchEach() {
+        return inputs.stream().map(matcher::match).toList();
+    }
+
+    @Benchmark
+    public List<List<MatchResult<Integer>>> matchAll() {
+        return matcher.matchAll(inputs);
+    }
+}
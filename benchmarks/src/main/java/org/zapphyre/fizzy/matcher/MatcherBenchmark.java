@@ -0,0 +1,67 @@
+package org.zapphyre.fizzy.matcher;
+
+import org.openjdk.jmh.annotations.*;
+import org.zapphyre.fizzy.model.MatchDef;
+import org.zapphyre.fizzy.model.MatchResult;
+import org.zapphyre.fizzy.model.ToleranceConfig;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatcherBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    int templateCount;
+
+    @Param({"16", "64", "256"})
+    int inputLength;
+
+    Matcher<Integer> matcher;
+    String input;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        matcher = Matcher.<Integer>create(IntStream.range(0, templateCount)
+                        .mapToObj(key -> MatchDef.<Integer>builder()
+                                .key(key)
+                                .knownValues(List.of(path(random, inputLength)))
+                                .build())
+                        .toList())
+                .withTolerances(ToleranceConfig.builder()
+                        .frequencyTolerancePercent(10.0)
+                        .orderEditDistanceRatio(0.2)
+                        .maxConsecutiveDrop(2)
+                        .build());
+        input = path(random, inputLength);
+    }
+
+    @Benchmark
+    public List<MatchResult<Integer>> match() {
+        return matcher.match(input);
+    }
+
+    @Benchmark
+    public List<MatchResult<Integer>> matchTop3() {
+        return matcher.match(input, 3);
+    }
+
+    /**
+     * Joystick-like path: runs of one of the four directions (ordinals 0..3) of 1 to 8 repeats.
+     */
+    static String path(Random random, int length) {
+        StringBuilder path = new StringBuilder(length);
+        while (path.length() < length) {
+            path.append(String.valueOf(random.nextInt(4)).repeat(1 + random.nextInt(8)));
+        }
+        return path.substring(0, length);
+    }
+}
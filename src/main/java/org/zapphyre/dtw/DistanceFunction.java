@@ -2,4 +2,12 @@ package org.zapphyre.dtw;
 
 public interface DistanceFunction {
     double calcDistance(double[] point1, double[] point2);
-}
\ No newline at end of file
+
+    /**
+     * Distance between point {@code i} of {@code s1} and point {@code j} of {@code s2}. Falls back to
+     * {@link #calcDistance(double[], double[])}; override it to work on the primitive series without allocating.
+     */
+    default double calcDistance(PolarSeries s1, int i, PolarSeries s2, int j) {
+        return calcDistance(new double[]{s1.radius[i], s1.theta[i]}, new double[]{s2.radius[j], s2.theta[j]});
+    }
+}
@@ -0,0 +1,100 @@
+package org.zapphyre.dtw;
+
+import java.util.List;
+
+/**
+ * Per-row bounding boxes of a series in Cartesian space: row {@code i} of a query of length {@code n} covers the
+ * series points its {@link WarpingWindow} row may align with. No warping path can cost less than the summed
+ * distances of the query points to their boxes, which makes the envelope an LB_Keogh bound for Euclidean costs.
+ */
+final class Envelope {
+    final double[] minX;
+    final double[] maxX;
+    final double[] minY;
+    final double[] maxY;
+
+    private Envelope(int n) {
+        minX = new double[n];
+        maxX = new double[n];
+        minY = new double[n];
+        maxY = new double[n];
+    }
+
+    /**
+     * Slides monotone min/max queues along the window rows, O(n + m) for the built-in windows whose row ranges only
+     * move right; a row whose range moves left is refilled from scratch.
+     */
+    static Envelope of(PolarSeries series, int n, WarpingWindow window) {
+        int m = series.length();
+        Envelope envelope = new Envelope(n);
+        SlidingExtreme minX = new SlidingExtreme(series.x, 1), maxX = new SlidingExtreme(series.x, -1);
+        SlidingExtreme minY = new SlidingExtreme(series.y, 1), maxY = new SlidingExtreme(series.y, -1);
+        List<SlidingExtreme> extremes = List.of(minX, maxX, minY, maxY);
+        int queuedTo = 0; // last column queued
+        for (int i = 1; i <= n; i++) {
+            int from = window.from(i, n, m), to = window.to(i, n, m);
+            if (i > 1 && (from < window.from(i - 1, n, m) || to < queuedTo)) {
+                extremes.forEach(SlidingExtreme::clear);
+                queuedTo = from - 1;
+            }
+            for (; queuedTo < to; queuedTo++) {
+                for (SlidingExtreme extreme : extremes) extreme.push(queuedTo);
+            }
+            for (SlidingExtreme extreme : extremes) extreme.evictBefore(from - 1);
+
+            envelope.minX[i - 1] = minX.get();
+            envelope.maxX[i - 1] = maxX.get();
+            envelope.minY[i - 1] = minY.get();
+            envelope.maxY[i - 1] = maxY.get();
+        }
+        return envelope;
+    }
+
+    /**
+     * Minimum ({@code sign} 1) or maximum ({@code sign} -1) of the 0-based indices pushed and not yet evicted.
+     */
+    private static final class SlidingExtreme {
+        private final double[] values;
+        private final int sign;
+        private final int[] queue;
+        private int head;
+        private int tail;
+
+        SlidingExtreme(double[] values, int sign) {
+            this.values = values;
+            this.sign = sign;
+            this.queue = new int[values.length];
+        }
+
+        void clear() {
+            head = tail = 0;
+        }
+
+        void push(int index) {
+            while (tail > head && sign * values[queue[tail - 1]] >= sign * values[index]) tail--;
+            queue[tail++] = index;
+        }
+
+        void evictBefore(int index) {
+            while (head < tail && queue[head] < index) head++;
+        }
+
+        double get() {
+            return head < tail ? values[queue[head]] : sign * Double.POSITIVE_INFINITY;
+        }
+    }
+
+    /**
+     * LB_Keogh of {@code query} against this envelope; gives up and returns the partial sum once it reaches
+     * {@code cutoff}.
+     */
+    double lowerBound(PolarSeries query, double cutoff) {
+        double sum = 0;
+        for (int i = 0; i < query.length() && sum < cutoff; i++) {
+            double dx = Math.max(0, Math.max(minX[i] - query.x[i], query.x[i] - maxX[i]));
+            double dy = Math.max(0, Math.max(minY[i] - query.y[i], query.y[i] - maxY[i]));
+            sum += Math.sqrt(dx * dx + dy * dy);
+        }
+        return sum;
+    }
+}
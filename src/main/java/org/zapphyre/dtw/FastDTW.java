@@ -0,0 +1,157 @@
+package org.zapphyre.dtw;
+
+import org.zapphyre.jfr.DtwEvent;
+import org.zapphyre.model.PolarCoords;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * FastDTW (Salvador and Chan): solves DTW on series coarsened by half, projects the low-resolution warp path back
+ * and refines it within {@code radius} cells. Time and memory are linear in the series length for a fixed radius.
+ * The result is the cost of a valid warp path, so it never undercuts the exact {@link SimpleDTW} distance; a larger
+ * radius gets closer to it, and a radius at least as long as the series is exact.
+ */
+public class FastDTW {
+    private final DistanceFunction distanceFunction;
+    private final int radius;
+
+    public FastDTW(DistanceFunction distanceFunction, int radius) {
+        if (radius < 0) throw new IllegalArgumentException("radius must not be negative: " + radius);
+        this.distanceFunction = distanceFunction;
+        this.radius = radius;
+    }
+
+    public double compute(List<PolarCoords> series1, List<PolarCoords> series2) {
+        return compute(PolarSeries.of(series1), PolarSeries.of(series2));
+    }
+
+    public double compute(PolarSeries series1, PolarSeries series2) {
+        DtwEvent event = new DtwEvent();
+        event.begin();
+
+        int n = series1.length();
+        int m = series2.length();
+        double distance = n == 0 || m == 0
+                ? n == m ? 0.0 : Double.POSITIVE_INFINITY
+                : warp(series1, series2).distance;
+
+        event.finish(n, m);
+        return distance;
+    }
+
+    private Warp warp(PolarSeries s1, PolarSeries s2) {
+        int minLength = radius + 2;
+        if (s1.length() <= minLength || s2.length() <= minLength) {
+            return solve(s1, s2, Window.full(s1.length(), s2.length()));
+        }
+
+        Warp coarse = warp(s1.coarsen(), s2.coarsen());
+        return solve(s1, s2, Window.projected(coarse, s1.length(), s2.length(), radius));
+    }
+
+    /**
+     * DTW restricted to {@code window}, keeping the cumulative cost of every window cell for the path walk back.
+     */
+    private Warp solve(PolarSeries s1, PolarSeries s2, Window window) {
+        int n = s1.length();
+        int[] offset = new int[n + 1];
+        for (int i = 0; i < n; i++) offset[i + 1] = offset[i] + window.to[i] - window.from[i] + 1;
+        double[] cost = new double[offset[n]];
+
+        for (int i = 0; i < n; i++) {
+            for (int j = window.from[i]; j <= window.to[i]; j++) {
+                double best = i == 0 && j == 0 ? 0 : Math.min(cell(cost, offset, window, i - 1, j),
+                        Math.min(cell(cost, offset, window, i, j - 1), cell(cost, offset, window, i - 1, j - 1)));
+                cost[offset[i] + j - window.from[i]] = distanceFunction.calcDistance(s1, i, s2, j) + best;
+            }
+        }
+
+        int m = s2.length();
+        int[] pathI = new int[n + m];
+        int[] pathJ = new int[n + m];
+        int length = 0;
+        int i = n - 1;
+        int j = m - 1;
+        while (true) {
+            pathI[length] = i;
+            pathJ[length++] = j;
+            if (i == 0 && j == 0) break;
+
+            double diagonal = cell(cost, offset, window, i - 1, j - 1);
+            double up = cell(cost, offset, window, i - 1, j);
+            double left = cell(cost, offset, window, i, j - 1);
+            if (diagonal <= up && diagonal <= left) {
+                i--;
+                j--;
+            } else if (up <= left) {
+                i--;
+            } else {
+                j--;
+            }
+        }
+
+        return new Warp(cell(cost, offset, window, n - 1, m - 1),
+                Arrays.copyOf(pathI, length), Arrays.copyOf(pathJ, length));
+    }
+
+    private static double cell(double[] cost, int[] offset, Window window, int i, int j) {
+        if (i < 0 || j < 0 || j < window.from[i] || j > window.to[i]) return Double.POSITIVE_INFINITY;
+        return cost[offset[i] + j - window.from[i]];
+    }
+
+    /**
+     * Total cost and warp path, stored from the last cell back to the first.
+     */
+    private static final class Warp {
+        final double distance;
+        final int[] pathI;
+        final int[] pathJ;
+
+        Warp(double distance, int[] pathI, int[] pathJ) {
+            this.distance = distance;
+            this.pathI = pathI;
+            this.pathJ = pathJ;
+        }
+    }
+
+    /**
+     * Inclusive, 0-based column range per row.
+     */
+    private static final class Window {
+        final int[] from;
+        final int[] to;
+
+        private Window(int n) {
+            from = new int[n];
+            to = new int[n];
+        }
+
+        static Window full(int n, int m) {
+            Window window = new Window(n);
+            Arrays.fill(window.to, m - 1);
+            return window;
+        }
+
+        /**
+         * Cells of the coarse path at double resolution, grown by {@code radius} in every direction.
+         */
+        static Window projected(Warp coarse, int n, int m, int radius) {
+            Window window = new Window(n);
+            Arrays.fill(window.from, Integer.MAX_VALUE);
+            Arrays.fill(window.to, -1);
+
+            for (int k = 0; k < coarse.pathI.length; k++) {
+                int fromRow = Math.max(0, 2 * coarse.pathI[k] - radius);
+                int toRow = Math.min(n - 1, 2 * coarse.pathI[k] + 1 + radius);
+                int fromColumn = Math.max(0, 2 * coarse.pathJ[k] - radius);
+                int toColumn = Math.min(m - 1, 2 * coarse.pathJ[k] + 1 + radius);
+                for (int row = fromRow; row <= toRow; row++) {
+                    window.from[row] = Math.min(window.from[row], fromColumn);
+                    window.to[row] = Math.max(window.to[row], toColumn);
+                }
+            }
+            return window;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package org.zapphyre.dtw;
+
+final class ItakuraWindow implements WarpingWindow {
+    private final double maxSlope;
+
+    ItakuraWindow(double maxSlope) {
+        this.maxSlope = maxSlope;
+    }
+
+    @Override
+    public int from(int i, int n, int m) {
+        double x = (double) i / n;
+        double lower = Math.max(x / maxSlope, 1 - maxSlope * (1 - x));
+        return Math.max(1, Math.min(SakoeChibaWindow.diagonalFrom(i, n, m), (int) Math.ceil(lower * m)));
+    }
+
+    @Override
+    public int to(int i, int n, int m) {
+        double x = (double) i / n;
+        double upper = Math.min(maxSlope * x, 1 - (1 - x) / maxSlope);
+        return Math.min(m, Math.max(SakoeChibaWindow.diagonalTo(i, n, m), (int) Math.floor(upper * m)));
+    }
+}
@@ -0,0 +1,11 @@
+package org.zapphyre.dtw;
+
+import lombok.Value;
+
+@Value(staticConstructor = "of")
+public class NearestTemplate {
+    int index; // position in the searched template list, -1 when there are no templates
+    double distance;
+    int dtwComputed; // DTW evaluations the lower bounds did not rule out
+    int dtwAbandoned; // of those, evaluations that stopped at a row already past the best-so-far distance
+}
@@ -0,0 +1,90 @@
+package org.zapphyre.dtw;
+
+import org.zapphyre.model.PolarCoords;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * 1-NN search under {@link PolarDistanceFunction} DTW. Templates are visited by ascending LB_Kim (first and last
+ * point distances); once that bound reaches the best distance found the scan stops. Remaining templates are checked
+ * against their LB_Keogh envelope and only run DTW if it still beats the best-so-far, which DTW then takes as its
+ * early-abandoning cutoff. The result is the one a brute-force scan with the same window returns: the lowest index
+ * among the nearest templates.
+ */
+public class NearestTemplateSearch {
+    private static final PolarDistanceFunction DISTANCE = new PolarDistanceFunction();
+
+    private final WarpingWindow window;
+    private final SimpleDTW dtw;
+    private final PolarSeries[] series;
+    private final Envelope[] envelopes; // for queries as long as the template itself
+
+    public NearestTemplateSearch(List<List<PolarCoords>> templates, WarpingWindow window) {
+        this.window = window;
+        this.dtw = new SimpleDTW(DISTANCE, window);
+        this.series = templates.stream().map(PolarSeries::of).toArray(PolarSeries[]::new);
+        this.envelopes = Arrays.stream(series)
+                .map(template -> Envelope.of(template, template.length(), window))
+                .toArray(Envelope[]::new);
+    }
+
+    public NearestTemplate nearest(List<PolarCoords> query) {
+        PolarSeries q = PolarSeries.of(query);
+        double[] kim = new double[series.length];
+        for (int t = 0; t < kim.length; t++) {
+            kim[t] = lbKim(q, series[t]);
+        }
+
+        int best = -1;
+        double bestDistance = Double.POSITIVE_INFINITY;
+        int computed = 0;
+        int abandoned = 0;
+        for (int t : IntStream.range(0, kim.length).boxed()
+                .sorted(Comparator.comparingDouble(t -> kim[t]))
+                .mapToInt(Integer::intValue)
+                .toArray()) {
+            if (kim[t] > bestDistance) break;
+            if (beaten(kim[t], t, bestDistance, best)) continue;
+
+            Envelope envelope = q.length() == series[t].length()
+                    ? envelopes[t]
+                    : Envelope.of(series[t], q.length(), window);
+            if (q.length() > 0 && beaten(envelope.lowerBound(q, bestDistance), t, bestDistance, best)) continue;
+
+            double distance = dtw.computeOrAbandon(q, series[t], bestDistance);
+            computed++;
+            if (distance == SimpleDTW.ABANDONED) {
+                abandoned++;
+                continue;
+            }
+            if (distance < bestDistance || distance == bestDistance && (best < 0 || t < best)) {
+                best = t;
+                bestDistance = distance;
+            }
+        }
+
+        return NearestTemplate.of(best, bestDistance, computed, abandoned);
+    }
+
+    /**
+     * Whether a template with lower bound {@code bound} cannot displace the current best.
+     */
+    private static boolean beaten(double bound, int template, double bestDistance, int best) {
+        return bound > bestDistance || bound == bestDistance && best >= 0 && template > best;
+    }
+
+    /**
+     * Every warping path starts at the first and ends at the last pair of points.
+     */
+    static double lbKim(PolarSeries query, PolarSeries template) {
+        int n = query.length();
+        int m = template.length();
+        if (n == 0 || m == 0) return n == m ? 0 : Double.POSITIVE_INFINITY;
+
+        double first = DISTANCE.calcDistance(query, 0, template, 0);
+        return n == 1 && m == 1 ? first : first + DISTANCE.calcDistance(query, n - 1, template, m - 1);
+    }
+}
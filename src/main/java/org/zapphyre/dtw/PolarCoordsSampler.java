@@ -1,6 +1,7 @@
 package org.zapphyre.dtw;
 
 import org.zapphyre.model.PolarCoords;
+import reactor.core.publisher.Flux;
 
 import java.time.Duration;
 import java.util.ArrayList;
@@ -17,6 +18,10 @@ public class PolarCoordsSampler {
         }
     }
 
+    /**
+     * Resamples timestamp-ordered input to one point per {@code sampleInterval}, starting at the first timestamp.
+     * A single pass: the interval pointer only moves forward, so the cost is O(samples + ticks).
+     */
     public static List<PolarCoords> interpolate(List<TimedPolarCoords> input, Duration sampleInterval) {
         if (input.size() < 2) {
             return input.stream().map(t -> t.coords).toList();
@@ -25,38 +30,69 @@ public class PolarCoordsSampler {
         List<PolarCoords> result = new ArrayList<>();
         long startTime = input.getFirst().timestampMs;
         long endTime = input.getLast().timestampMs;
-        long intervalMs = sampleInterval.toMillis();
+        long intervalMs = intervalMs(sampleInterval);
 
-        for (long t = startTime; t <= endTime; t += intervalMs) {
-            // Find the two points to interpolate between
-            TimedPolarCoords prev = null;
-            TimedPolarCoords next = null;
-            for (TimedPolarCoords point : input) {
-                if (point.timestampMs <= t) {
-                    prev = point;
-                } else {
-                    next = point;
-                    break;
-                }
+        int prev = 0;
+        for (long t = startTime; t < endTime; t += intervalMs) {
+            // prev is the last point at or before t, the one after it the first point past t
+            while (prev + 2 < input.size() && input.get(prev + 1).timestampMs <= t) {
+                prev++;
             }
-
-            if (prev == null || next == null) {
-                continue; // Skip if no valid interval
-            }
-
-            // Linear interpolation
-            double fraction = (double) (t - prev.timestampMs) / (next.timestampMs - prev.timestampMs);
-            double r = prev.coords.getRadius() + fraction * (next.coords.getRadius() - prev.coords.getRadius());
-            double theta = prev.coords.getTheta() + fraction * (next.coords.getTheta() - prev.coords.getTheta());
-            // Normalize theta to [0, 2π)
-            theta = theta % (2 * Math.PI);
-            if (theta < 0) {
-                theta += 2 * Math.PI;
+            if (input.get(prev + 1).timestampMs <= t) {
+                break; // t is at or past the last timestamp, no interval to interpolate in
             }
 
-            result.add(PolarCoords.builder().radius(r).theta(theta).build());
+            result.add(interpolate(input.get(prev), input.get(prev + 1), t));
         }
 
         return result;
     }
-}
\ No newline at end of file
+
+    /**
+     * Incremental {@link #interpolate(List, Duration)} over a live, timestamp-ordered stream: each tick is emitted
+     * as soon as the first sample past it arrives, keeping only the previous sample in memory.
+     */
+    public static Flux<PolarCoords> resample(Flux<TimedPolarCoords> input, Duration sampleInterval) {
+        long intervalMs = intervalMs(sampleInterval);
+        return Flux.defer(() -> {
+            TimedPolarCoords[] prev = new TimedPolarCoords[1];
+            long[] nextTick = new long[1];
+
+            return input.concatMapIterable(next -> {
+                if (prev[0] == null) {
+                    prev[0] = next;
+                    nextTick[0] = next.timestampMs;
+                    return List.of();
+                }
+
+                List<PolarCoords> ticks = List.of();
+                for (; nextTick[0] < next.timestampMs; nextTick[0] += intervalMs) {
+                    if (ticks.isEmpty()) ticks = new ArrayList<>();
+                    ticks.add(interpolate(prev[0], next, nextTick[0]));
+                }
+                prev[0] = next;
+                return ticks;
+            });
+        });
+    }
+
+    private static long intervalMs(Duration sampleInterval) {
+        long intervalMs = sampleInterval.toMillis();
+        if (intervalMs <= 0) throw new IllegalArgumentException("sample interval must be at least 1 ms: " + sampleInterval);
+        return intervalMs;
+    }
+
+    private static PolarCoords interpolate(TimedPolarCoords prev, TimedPolarCoords next, long t) {
+        // Linear interpolation
+        double fraction = (double) (t - prev.timestampMs) / (next.timestampMs - prev.timestampMs);
+        double r = prev.coords.getRadius() + fraction * (next.coords.getRadius() - prev.coords.getRadius());
+        double theta = prev.coords.getTheta() + fraction * (next.coords.getTheta() - prev.coords.getTheta());
+        // Normalize theta to [0, 2π)
+        theta = theta % (2 * Math.PI);
+        if (theta < 0) {
+            theta += 2 * Math.PI;
+        }
+
+        return PolarCoords.builder().radius(r).theta(theta).build();
+    }
+}
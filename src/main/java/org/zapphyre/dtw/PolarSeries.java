@@ -0,0 +1,86 @@
+package org.zapphyre.dtw;
+
+import org.zapphyre.model.PolarCoords;
+
+import java.util.List;
+
+/**
+ * Immutable polar series backed by primitive arrays, with the Cartesian form {@link PolarDistanceFunction}
+ * measures in computed once per series instead of once per DTW cell.
+ */
+public final class PolarSeries {
+    final double[] radius;
+    final double[] theta;
+    final double[] x;
+    final double[] y;
+
+    private PolarSeries(int length) {
+        radius = new double[length];
+        theta = new double[length];
+        x = new double[length];
+        y = new double[length];
+    }
+
+    public static PolarSeries of(List<PolarCoords> series) {
+        PolarSeries result = new PolarSeries(series.size());
+        for (int i = 0; i < series.size(); i++) {
+            result.set(i, series.get(i).getRadius(), series.get(i).getTheta());
+        }
+        return result;
+    }
+
+    public static PolarSeries of(double[] radius, double[] theta) {
+        if (radius.length != theta.length) {
+            throw new IllegalArgumentException("radius and theta lengths differ: " + radius.length + " != " + theta.length);
+        }
+        PolarSeries result = new PolarSeries(radius.length);
+        for (int i = 0; i < radius.length; i++) {
+            result.set(i, radius[i], theta[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Half-length series whose points average consecutive pairs in Cartesian space; an odd last point is kept.
+     */
+    PolarSeries coarsen() {
+        PolarSeries result = new PolarSeries((length() + 1) / 2);
+        for (int i = 0; i < result.length(); i++) {
+            int last = Math.min(2 * i + 1, length() - 1);
+            double cx = (x[2 * i] + x[last]) / 2;
+            double cy = (y[2 * i] + y[last]) / 2;
+            result.x[i] = cx;
+            result.y[i] = cy;
+            result.radius[i] = Math.sqrt(cx * cx + cy * cy);
+            result.theta[i] = (Math.atan2(cy, cx) + 2 * Math.PI) % (2 * Math.PI);
+        }
+        return result;
+    }
+
+    private void set(int i, double r, double t) {
+        radius[i] = r;
+        theta[i] = t;
+        x[i] = r * Math.cos(t);
+        y[i] = r * Math.sin(t);
+    }
+
+    public int length() {
+        return radius.length;
+    }
+
+    public double radius(int i) {
+        return radius[i];
+    }
+
+    public double theta(int i) {
+        return theta[i];
+    }
+
+    public double x(int i) {
+        return x[i];
+    }
+
+    public double y(int i) {
+        return y[i];
+    }
+}
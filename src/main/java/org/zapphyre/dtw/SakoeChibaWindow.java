@@ -0,0 +1,30 @@
+package org.zapphyre.dtw;
+
+final class SakoeChibaWindow implements WarpingWindow {
+    private final int radius;
+
+    SakoeChibaWindow(int radius) {
+        this.radius = radius;
+    }
+
+    @Override
+    public int from(int i, int n, int m) {
+        return Math.max(1, diagonalFrom(i, n, m) - radius);
+    }
+
+    @Override
+    public int to(int i, int n, int m) {
+        return Math.min(m, diagonalTo(i, n, m) + radius);
+    }
+
+    /**
+     * First and last column the scaled diagonal passes through on row {@code i}.
+     */
+    static int diagonalFrom(int i, int n, int m) {
+        return (int) ((long) (i - 1) * m / n) + 1;
+    }
+
+    static int diagonalTo(int i, int n, int m) {
+        return (int) (((long) i * m + n - 1) / n);
+    }
+}
@@ -1,45 +1,115 @@
 package org.zapphyre.dtw;
 
 
+import org.zapphyre.jfr.DtwEvent;
 import org.zapphyre.model.PolarCoords;
 
 import java.util.List;
 
 public class SimpleDTW {
+    /**
+     * Returned by {@link #computeOrAbandon} when a row of reachable cells all exceeded {@code cutoff}, as opposed to
+     * a matrix filled to the end or a window leaving no warping path.
+     */
+    static final double ABANDONED = -1;
+
     private final DistanceFunction distanceFunction;
+    private final WarpingWindow window;
 
     public SimpleDTW(DistanceFunction distanceFunction) {
+        this(distanceFunction, WarpingWindow.unconstrained());
+    }
+
+    /**
+     * @param window global path constraint; {@link WarpingWindow#sakoeChiba} or {@link WarpingWindow#itakura}
+     *               cut time to O(n·band), {@link WarpingWindow#unconstrained()} gives the exact DTW distance
+     */
+    public SimpleDTW(DistanceFunction distanceFunction, WarpingWindow window) {
         this.distanceFunction = distanceFunction;
+        this.window = window;
     }
 
     public double compute(List<PolarCoords> series1, List<PolarCoords> series2) {
-        int n = series1.size();
-        int m = series2.size();
-        double[][] dtw = new double[n + 1][m + 1];
+        return compute(PolarSeries.of(series1), PolarSeries.of(series2));
+    }
+
+    public double compute(List<PolarCoords> series1, List<PolarCoords> series2, double cutoff) {
+        return compute(PolarSeries.of(series1), PolarSeries.of(series2), cutoff);
+    }
+
+    /**
+     * DTW distance within the configured window. Only two rows, each as wide as the widest window row, are kept,
+     * so memory is O(band) rather than O(n·m). The inner loop reads primitive arrays only; with
+     * {@link PolarDistanceFunction} it neither allocates nor calls trig functions.
+     */
+    public double compute(PolarSeries series1, PolarSeries series2) {
+        return compute(series1, series2, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Early-abandoning {@link #compute(PolarSeries, PolarSeries)}: every warping path crosses every row, so once all
+     * cells of a row exceed {@code cutoff} the distance does too and {@link Double#POSITIVE_INFINITY} is returned
+     * without filling the remaining rows. Any distance above {@code cutoff} comes back as infinity, those up to and
+     * including it are exact.
+     */
+    public double compute(PolarSeries series1, PolarSeries series2, double cutoff) {
+        double distance = computeOrAbandon(series1, series2, cutoff);
+        return distance == ABANDONED ? Double.POSITIVE_INFINITY : distance;
+    }
 
-        // Initialize first row and column
-        for (int i = 0; i <= n; i++) {
-            dtw[i][0] = Double.POSITIVE_INFINITY;
+    /**
+     * {@link #compute(PolarSeries, PolarSeries, double)} that tells an early exit apart by returning
+     * {@link #ABANDONED}.
+     */
+    double computeOrAbandon(PolarSeries series1, PolarSeries series2, double cutoff) {
+        DtwEvent event = new DtwEvent();
+        event.begin();
+
+        int n = series1.length();
+        int m = series2.length();
+        if (n == 0 || m == 0) {
+            event.finish(n, m);
+            return n == m ? 0.0 : Double.POSITIVE_INFINITY;
         }
-        for (int j = 0; j <= m; j++) {
-            dtw[0][j] = Double.POSITIVE_INFINITY;
+
+        int width = 1;
+        for (int i = 1; i <= n; i++) {
+            width = Math.max(width, window.to(i, n, m) - window.from(i, n, m) + 1);
         }
-        dtw[0][0] = 0.0;
 
-        // Fill DTW matrix
+        // row 0 holds only dtw[0][0] = 0, every cell outside a row's range is +inf
+        double[] prev = new double[width];
+        double[] curr = new double[width];
+        int prevFrom = 0;
+        int prevTo = 0;
+
         for (int i = 1; i <= n; i++) {
-            for (int j = 1; j <= m; j++) {
-                double cost = distanceFunction.calcDistance(
-                        new double[]{series1.get(i - 1).getRadius(), series1.get(i - 1).getTheta()},
-                        new double[]{series2.get(j - 1).getRadius(), series2.get(j - 1).getTheta()}
-                );
-                dtw[i][j] = cost + Math.min(
-                        dtw[i - 1][j],    // Insertion
-                        Math.min(dtw[i][j - 1],  // Deletion
-                                dtw[i - 1][j - 1]) // Match
-                );
+            int from = window.from(i, n, m);
+            int to = window.to(i, n, m);
+            double rowMin = Double.POSITIVE_INFINITY;
+
+            for (int j = from; j <= to; j++) {
+                double cost = distanceFunction.calcDistance(series1, i - 1, series2, j - 1);
+                double insertion = j >= prevFrom && j <= prevTo ? prev[j - prevFrom] : Double.POSITIVE_INFINITY;
+                double deletion = j > from ? curr[j - 1 - from] : Double.POSITIVE_INFINITY;
+                double match = j - 1 >= prevFrom && j - 1 <= prevTo ? prev[j - 1 - prevFrom] : Double.POSITIVE_INFINITY;
+                curr[j - from] = cost + Math.min(insertion, Math.min(deletion, match));
+                rowMin = Math.min(rowMin, curr[j - from]);
             }
+
+            if (rowMin > cutoff) {
+                event.finish(n, m);
+                return rowMin == Double.POSITIVE_INFINITY ? Double.POSITIVE_INFINITY : ABANDONED;
+            }
+
+            double[] swap = prev;
+            prev = curr;
+            curr = swap;
+            prevFrom = from;
+            prevTo = to;
         }
-        return dtw[n][m];
+
+        event.finish(n, m);
+        return prev[m - prevFrom] > cutoff ? Double.POSITIVE_INFINITY : prev[m - prevFrom];
     }
 }
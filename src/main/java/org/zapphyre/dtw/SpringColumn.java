@@ -0,0 +1,113 @@
+package org.zapphyre.dtw;
+
+import java.util.Arrays;
+
+/**
+ * SPRING state of one template (Sakurai, Faloutsos, Yamamuro: "Stream Monitoring under the Time Warping
+ * Distance"): the subsequence DTW column for the latest sample, the start offset of every cell's best path and the
+ * best candidate waiting to be confirmed.
+ */
+final class SpringColumn {
+    private final PolarSeries template;
+    private final double[] distance;
+    private final long[] start;
+
+    private double candidate = Double.POSITIVE_INFINITY;
+    private long candidateStart;
+    private long candidateEnd;
+    private long reportedStart;
+    private long reportedEnd;
+
+    SpringColumn(PolarSeries template) {
+        this.template = template;
+        this.distance = new double[template.length() + 1];
+        this.start = new long[template.length() + 1];
+        Arrays.fill(distance, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Advances the column by the sample at {@code offset} and returns the distance of a match confirmed by it,
+     * or {@code NaN}. A candidate under {@code threshold} is confirmed once no cell whose path overlaps it can still
+     * lead to a better one; its cells are then reset so reported matches never overlap.
+     */
+    double accept(double x, double y, long offset, double threshold) {
+        int m = template.length();
+        double up = 0;
+        long upStart = offset;
+        double diagonal = 0;
+        long diagonalStart = offset;
+        for (int j = 1; j <= m; j++) {
+            double left = distance[j];
+            long leftStart = start[j];
+
+            double best = up;
+            long bestStart = upStart;
+            if (left < best) {
+                best = left;
+                bestStart = leftStart;
+            }
+            if (diagonal < best) {
+                best = diagonal;
+                bestStart = diagonalStart;
+            }
+
+            double dx = x - template.x[j - 1];
+            double dy = y - template.y[j - 1];
+            distance[j] = Math.sqrt(dx * dx + dy * dy) + best;
+            start[j] = bestStart;
+
+            diagonal = left;
+            diagonalStart = leftStart;
+            up = distance[j];
+            upStart = bestStart;
+        }
+
+        double confirmed = Double.NaN;
+        if (candidate <= threshold && canNoLongerImprove()) {
+            confirmed = report();
+            for (int j = 1; j <= m; j++) {
+                if (start[j] <= candidateEnd) distance[j] = Double.POSITIVE_INFINITY;
+            }
+        }
+
+        if (distance[m] <= threshold && distance[m] < candidate) {
+            candidate = distance[m];
+            candidateStart = start[m];
+            candidateEnd = offset;
+        }
+        return confirmed;
+    }
+
+    /**
+     * Hands out the pending candidate at the end of the stream, or {@code NaN}.
+     */
+    double flush(double threshold) {
+        return candidate <= threshold ? report() : Double.NaN;
+    }
+
+    /**
+     * Start and end offset of the match {@link #accept} or {@link #flush} returned last.
+     */
+    long reportedStart() {
+        return reportedStart;
+    }
+
+    long reportedEnd() {
+        return reportedEnd;
+    }
+
+    private double report() {
+        double reported = candidate;
+        reportedStart = candidateStart;
+        reportedEnd = candidateEnd;
+        candidate = Double.POSITIVE_INFINITY;
+        return reported;
+    }
+
+    private boolean canNoLongerImprove() {
+        for (int j = 1; j < distance.length; j++) {
+            if (distance[j] < candidate && start[j] <= candidateEnd) return false;
+        }
+        return true;
+    }
+}
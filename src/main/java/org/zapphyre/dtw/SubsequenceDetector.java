@@ -0,0 +1,80 @@
+package org.zapphyre.dtw;
+
+import lombok.Builder;
+import org.zapphyre.model.PolarCoords;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Spots templates inside a continuous sample stream with SPRING subsequence DTW under {@link PolarDistanceFunction},
+ * so gestures need no idle window to be segmented and may be chained. Each subscription keeps one DTW column per
+ * template and does O(template length) work per sample; nothing of the stream itself is buffered. A match is emitted
+ * as soon as its subsequence is under {@code threshold} and no overlapping subsequence can still beat it, which is
+ * usually a few samples after its end. Matches of one template never overlap.
+ */
+public class SubsequenceDetector<T> {
+    private final List<T> keys;
+    private final List<PolarSeries> templates;
+    private final double threshold;
+
+    /**
+     * @param templates template traces by key, in the order simultaneous matches are emitted
+     * @param threshold largest DTW distance reported as a match
+     */
+    @Builder
+    public SubsequenceDetector(Map<T, List<PolarCoords>> templates, double threshold) {
+        this.keys = List.copyOf(templates.keySet());
+        this.templates = keys.stream().map(key -> PolarSeries.of(templates.get(key))).toList();
+        this.threshold = threshold;
+    }
+
+    public Flux<SubsequenceMatch<T>> detect(Flux<PolarCoords> stream) {
+        return Flux.defer(() -> {
+            Session session = new Session();
+            return stream.concatMapIterable(session::accept)
+                    .concatWith(Flux.defer(() -> Flux.fromIterable(session.flush())));
+        });
+    }
+
+    private class Session {
+        final SpringColumn[] columns = templates.stream().map(SpringColumn::new).toArray(SpringColumn[]::new);
+        long offset;
+
+        List<SubsequenceMatch<T>> accept(PolarCoords sample) {
+            double x = sample.getRadius() * Math.cos(sample.getTheta());
+            double y = sample.getRadius() * Math.sin(sample.getTheta());
+
+            List<SubsequenceMatch<T>> matches = List.of();
+            for (int t = 0; t < columns.length; t++) {
+                double distance = columns[t].accept(x, y, offset, threshold);
+                if (!Double.isNaN(distance)) {
+                    if (matches.isEmpty()) matches = new ArrayList<>();
+                    matches.add(match(t, distance));
+                }
+            }
+            offset++;
+            return matches;
+        }
+
+        List<SubsequenceMatch<T>> flush() {
+            List<SubsequenceMatch<T>> matches = new ArrayList<>();
+            for (int t = 0; t < columns.length; t++) {
+                double distance = columns[t].flush(threshold);
+                if (!Double.isNaN(distance)) matches.add(match(t, distance));
+            }
+            return matches;
+        }
+
+        private SubsequenceMatch<T> match(int template, double distance) {
+            return SubsequenceMatch.<T>builder()
+                    .key(keys.get(template))
+                    .distance(distance)
+                    .start(columns[template].reportedStart())
+                    .end(columns[template].reportedEnd())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package org.zapphyre.dtw;
+
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class SubsequenceMatch<T> {
+    T key;
+    double distance;
+    long start; // offset of the first matched sample in the stream, inclusive
+    long end;   // offset of the last matched sample, inclusive
+}
@@ -0,0 +1,171 @@
+package org.zapphyre.dtw;
+
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Value;
+import org.zapphyre.model.PolarCoords;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Keyed library of polar traces ranked by DTW, the trace counterpart of
+ * {@link org.zapphyre.fizzy.matcher.Matcher}. Distances are normalized by the summed length of both traces so keys
+ * with long and short traces compare fairly. Templates are split into strided chunks evaluated on the executor.
+ */
+@Getter
+public class TraceClassifier<T> {
+    private final List<TraceDef<T>> traceDefs;
+    private final WarpingWindow window;
+    private final TraceSimplifier simplifier;
+    private final Executor executor;
+    private final int parallelism;
+
+    @Getter(AccessLevel.NONE)
+    private final SimpleDTW dtw;
+    @Getter(AccessLevel.NONE)
+    private final PolarSeries[] templates;
+    @Getter(AccessLevel.NONE)
+    private final int[] defIndex;
+    @Getter(AccessLevel.NONE)
+    private final int[] traceIndex;
+
+    /**
+     * @param window      DTW path constraint, unconstrained when not set
+     * @param simplifier  applied to known traces once and to every input, none when not set
+     * @param executor    runs the template chunks, the common pool when not set
+     * @param parallelism number of template chunks, one per core when not set
+     */
+    @Builder
+    public TraceClassifier(List<TraceDef<T>> traceDefs, WarpingWindow window, TraceSimplifier simplifier,
+                           Executor executor, Integer parallelism) {
+        this.traceDefs = List.copyOf(traceDefs);
+        this.window = window != null ? window : WarpingWindow.unconstrained();
+        this.simplifier = simplifier != null ? simplifier : trace -> trace;
+        this.executor = executor != null ? executor : ForkJoinPool.commonPool();
+        this.parallelism = parallelism != null ? parallelism : Runtime.getRuntime().availableProcessors();
+        if (this.parallelism <= 0) throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        this.dtw = new SimpleDTW(new PolarDistanceFunction(), this.window);
+
+        List<PolarSeries> series = new ArrayList<>();
+        List<int[]> origin = new ArrayList<>();
+        for (int d = 0; d < this.traceDefs.size(); d++) {
+            List<List<PolarCoords>> known = this.traceDefs.get(d).getKnownTraces();
+            for (int k = 0; k < known.size(); k++) {
+                series.add(PolarSeries.of(this.simplifier.simplify(known.get(k))));
+                origin.add(new int[]{d, k});
+            }
+        }
+        this.templates = series.toArray(PolarSeries[]::new);
+        this.defIndex = origin.stream().mapToInt(o -> o[0]).toArray();
+        this.traceIndex = origin.stream().mapToInt(o -> o[1]).toArray();
+    }
+
+    /**
+     * Every key with its closest known trace, nearest first.
+     */
+    public List<TraceMatchResult<T>> match(List<PolarCoords> trace) {
+        PolarSeries input = PolarSeries.of(simplifier.simplify(trace));
+        double[] distances = new double[templates.length];
+        forEachTemplate(template -> distances[template] = normalized(dtw.compute(input, templates[template]), input, template));
+
+        Map<Integer, Neighbour> closest = new LinkedHashMap<>();
+        for (int template = 0; template < templates.length; template++) {
+            Neighbour neighbour = Neighbour.of(template, distances[template]);
+            closest.merge(defIndex[template], neighbour,
+                    (a, b) -> b.getDistance() < a.getDistance() ? b : a);
+        }
+
+        return closest.values().stream()
+                .sorted(Comparator.comparingDouble(Neighbour::getDistance))
+                .map(neighbour -> result(neighbour, 0))
+                .toList();
+    }
+
+    /**
+     * k-NN classification: the {@code k} nearest known traces vote for their keys. Keys are ranked by votes, then
+     * by their closest trace. Each chunk keeps its own k nearest and hands the k-th distance to DTW as its
+     * early-abandoning cutoff.
+     */
+    public List<TraceMatchResult<T>> classify(List<PolarCoords> trace, int k) {
+        if (k <= 0) return List.of();
+
+        PolarSeries input = PolarSeries.of(simplifier.simplify(trace));
+        Comparator<Neighbour> nearestFirst = Comparator.comparingDouble(Neighbour::getDistance)
+                .thenComparingInt(Neighbour::getTemplate);
+        List<Neighbour> neighbours = Collections.synchronizedList(new ArrayList<>());
+        inChunks(chunk -> {
+            PriorityQueue<Neighbour> nearest = new PriorityQueue<>(k + 1, nearestFirst.reversed());
+            for (int template : chunk) {
+                double cutoff = nearest.size() == k
+                        ? nearest.peek().getDistance() * (input.length() + templates[template].length())
+                        : Double.POSITIVE_INFINITY;
+                double distance = dtw.compute(input, templates[template], cutoff);
+                if (distance == Double.POSITIVE_INFINITY) continue;
+
+                nearest.add(Neighbour.of(template, normalized(distance, input, template)));
+                if (nearest.size() > k) nearest.poll();
+            }
+            neighbours.addAll(nearest);
+        });
+
+        Map<Integer, List<Neighbour>> byKey = new LinkedHashMap<>();
+        neighbours.stream()
+                .sorted(nearestFirst)
+                .limit(k)
+                .forEach(neighbour -> byKey.computeIfAbsent(defIndex[neighbour.getTemplate()], d -> new ArrayList<>())
+                        .add(neighbour));
+
+        return byKey.values().stream()
+                .sorted(Comparator.comparingInt((List<Neighbour> votes) -> votes.size()).reversed()
+                        .thenComparingDouble(votes -> votes.getFirst().getDistance()))
+                .map(votes -> result(votes.getFirst(), votes.size()))
+                .toList();
+    }
+
+    private double normalized(double distance, PolarSeries input, int template) {
+        int length = input.length() + templates[template].length();
+        return length == 0 ? distance : distance / length;
+    }
+
+    private TraceMatchResult<T> result(Neighbour neighbour, int votes) {
+        return TraceMatchResult.<T>builder()
+                .key(traceDefs.get(defIndex[neighbour.getTemplate()]).getKey())
+                .knownTrace(traceIndex[neighbour.getTemplate()])
+                .normalizedDistance(neighbour.getDistance())
+                .votes(votes)
+                .build();
+    }
+
+    private void forEachTemplate(IntConsumer perTemplate) {
+        inChunks(chunk -> {
+            for (int template : chunk) perTemplate.accept(template);
+        });
+    }
+
+    /**
+     * Runs {@code perChunk} over {@code parallelism} strided chunks of template indices and waits for all of them.
+     */
+    private void inChunks(Consumer<int[]> perChunk) {
+        int chunks = Math.max(1, Math.min(templates.length, parallelism));
+        CompletableFuture.allOf(IntStream.range(0, chunks)
+                        .mapToObj(chunk -> CompletableFuture.runAsync(() -> {
+                            // strided so that long and short templates spread evenly over chunks
+                            perChunk.accept(IntStream.iterate(chunk, i -> i < templates.length, i -> i + chunks).toArray());
+                        }, executor))
+                        .toArray(CompletableFuture[]::new))
+                .join();
+    }
+
+    @Value(staticConstructor = "of")
+    private static class Neighbour {
+        int template;
+        double distance; // normalized
+    }
+}
@@ -0,0 +1,14 @@
+package org.zapphyre.dtw;
+
+import lombok.Builder;
+import lombok.Value;
+import org.zapphyre.model.PolarCoords;
+
+import java.util.List;
+
+@Value
+@Builder
+public class TraceDef<T> {
+    T key;
+    List<List<PolarCoords>> knownTraces;
+}
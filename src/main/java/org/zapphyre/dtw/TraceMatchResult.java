@@ -0,0 +1,13 @@
+package org.zapphyre.dtw;
+
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class TraceMatchResult<T> {
+    T key;
+    int knownTrace; // index into the key's TraceDef.knownTraces of its closest trace
+    double normalizedDistance; // DTW distance divided by the summed lengths of both traces
+    int votes; // nearest neighbours won by the key, 0 outside k-NN classification
+}
@@ -0,0 +1,165 @@
+package org.zapphyre.dtw;
+
+import org.zapphyre.model.PolarCoords;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Shrinks an oversampled trace before DTW, whose cost grows with the product of both lengths. Apply the same
+ * simplifier to stored templates and to live input so both are compared at the same resolution.
+ */
+@FunctionalInterface
+public interface TraceSimplifier {
+
+    List<PolarCoords> simplify(List<PolarCoords> trace);
+
+    default TraceSimplifier andThen(TraceSimplifier next) {
+        return trace -> next.simplify(simplify(trace));
+    }
+
+    /**
+     * Piecewise aggregate approximation: {@code segments} points, each the Cartesian mean of an equal share of the
+     * trace. Traces already that short are returned as they are.
+     */
+    static TraceSimplifier paa(int segments) {
+        if (segments <= 0) throw new IllegalArgumentException("segments must be positive: " + segments);
+        return trace -> {
+            if (trace.size() <= segments) return trace;
+
+            List<PolarCoords> result = new ArrayList<>(segments);
+            for (int s = 0; s < segments; s++) {
+                result.add(mean(trace, (int) ((long) s * trace.size() / segments),
+                        (int) ((long) (s + 1) * trace.size() / segments)));
+            }
+            return result;
+        };
+    }
+
+    /**
+     * Ramer–Douglas–Peucker in Cartesian space: keeps the end points and every point that deviates more than
+     * {@code epsilon} from the segment between the kept points around it.
+     */
+    static TraceSimplifier ramerDouglasPeucker(double epsilon) {
+        return trace -> {
+            if (trace.size() < 3) return trace;
+
+            PolarSeries series = PolarSeries.of(trace);
+            boolean[] keep = new boolean[trace.size()];
+            keep[0] = keep[trace.size() - 1] = true;
+
+            int[] stack = new int[2 * trace.size()];
+            int top = 0;
+            stack[top++] = 0;
+            stack[top++] = trace.size() - 1;
+            while (top > 0) {
+                int last = stack[--top];
+                int first = stack[--top];
+                int farthest = -1;
+                double farthestDistance = epsilon;
+                for (int i = first + 1; i < last; i++) {
+                    double distance = segmentDistance(series, i, first, last);
+                    if (distance > farthestDistance) {
+                        farthest = i;
+                        farthestDistance = distance;
+                    }
+                }
+                if (farthest >= 0) {
+                    keep[farthest] = true;
+                    stack[top++] = first;
+                    stack[top++] = farthest;
+                    stack[top++] = farthest;
+                    stack[top++] = last;
+                }
+            }
+
+            List<PolarCoords> result = new ArrayList<>();
+            for (int i = 0; i < keep.length; i++) {
+                if (keep[i]) result.add(trace.get(i));
+            }
+            return result;
+        };
+    }
+
+    /**
+     * Drops samples within {@code radius} and {@code angleRadians} of the last kept one, collapsing a resting stick
+     * into a single point. The final sample is always kept.
+     */
+    static TraceSimplifier deadBand(double radius, double angleRadians) {
+        return trace -> {
+            if (trace.size() < 3) return trace;
+
+            List<PolarCoords> result = new ArrayList<>();
+            PolarCoords kept = trace.getFirst();
+            result.add(kept);
+            for (PolarCoords point : trace.subList(1, trace.size() - 1)) {
+                if (outsideDeadBand(kept, point, radius, angleRadians)) {
+                    kept = point;
+                    result.add(point);
+                }
+            }
+            result.add(trace.getLast());
+            return result;
+        };
+    }
+
+    /**
+     * {@link #deadBand} for live input: passes on a sample only when it leaves the dead band of the last one passed.
+     */
+    static Flux<PolarCoords> collapseDeadBand(Flux<PolarCoords> stream, double radius, double angleRadians) {
+        return Flux.defer(() -> {
+            AtomicReference<PolarCoords> kept = new AtomicReference<>();
+            return stream.filter(point -> {
+                PolarCoords last = kept.get();
+                if (last != null && !outsideDeadBand(last, point, radius, angleRadians)) return false;
+                kept.set(point);
+                return true;
+            });
+        });
+    }
+
+    /**
+     * Streaming aggregation for live input: the Cartesian mean of every {@code frame} consecutive samples.
+     */
+    static Flux<PolarCoords> aggregate(Flux<PolarCoords> stream, int frame) {
+        return stream.buffer(frame).map(samples -> mean(samples, 0, samples.size()));
+    }
+
+    private static boolean outsideDeadBand(PolarCoords kept, PolarCoords point, double radius, double angleRadians) {
+        double angle = Math.abs(point.getTheta() - kept.getTheta()) % (2 * Math.PI);
+        return Math.abs(point.getRadius() - kept.getRadius()) > radius
+                || Math.min(angle, 2 * Math.PI - angle) > angleRadians;
+    }
+
+    private static PolarCoords mean(List<PolarCoords> trace, int from, int to) {
+        double x = 0;
+        double y = 0;
+        for (PolarCoords point : trace.subList(from, to)) {
+            x += point.getRadius() * Math.cos(point.getTheta());
+            y += point.getRadius() * Math.sin(point.getTheta());
+        }
+        x /= to - from;
+        y /= to - from;
+        return PolarCoords.builder()
+                .radius(Math.sqrt(x * x + y * y))
+                .theta((Math.atan2(y, x) + 2 * Math.PI) % (2 * Math.PI))
+                .build();
+    }
+
+    /**
+     * Distance of point {@code i} to the segment between points {@code a} and {@code b}.
+     */
+    private static double segmentDistance(PolarSeries series, int i, int a, int b) {
+        double sx = series.x[b] - series.x[a];
+        double sy = series.y[b] - series.y[a];
+        double px = series.x[i] - series.x[a];
+        double py = series.y[i] - series.y[a];
+        double lengthSquared = sx * sx + sy * sy;
+        double t = lengthSquared == 0 ? 0 : Math.max(0, Math.min(1, (px * sx + py * sy) / lengthSquared));
+        double dx = px - t * sx;
+        double dy = py - t * sy;
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+}
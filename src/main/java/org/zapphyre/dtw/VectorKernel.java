@@ -0,0 +1,31 @@
+package org.zapphyre.dtw;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The only class touching {@code jdk.incubator.vector}; {@link VectorizedDTW} loads it only once the module is
+ * known to be present.
+ */
+final class VectorKernel {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    private VectorKernel() {
+    }
+
+    static void diagonal(double[] x1, double[] y1, double[] xr, double[] yr, int offset,
+                         double[] prev2, double[] prev, double[] curr, int from, int to) {
+        int i = from;
+        for (int upper = to - SPECIES.length() + 1; i <= upper; i += SPECIES.length()) {
+            DoubleVector dx = DoubleVector.fromArray(SPECIES, x1, i - 1)
+                    .sub(DoubleVector.fromArray(SPECIES, xr, offset + i));
+            DoubleVector dy = DoubleVector.fromArray(SPECIES, y1, i - 1)
+                    .sub(DoubleVector.fromArray(SPECIES, yr, offset + i));
+            DoubleVector best = DoubleVector.fromArray(SPECIES, prev, i - 1)
+                    .min(DoubleVector.fromArray(SPECIES, prev, i)
+                            .min(DoubleVector.fromArray(SPECIES, prev2, i - 1)));
+            dx.mul(dx).add(dy.mul(dy)).sqrt().add(best).intoArray(curr, i);
+        }
+        VectorizedDTW.diagonal(x1, y1, xr, yr, offset, prev2, prev, curr, i, to);
+    }
+}
@@ -0,0 +1,104 @@
+package org.zapphyre.dtw;
+
+import org.zapphyre.jfr.DtwEvent;
+import org.zapphyre.model.PolarCoords;
+
+import java.util.List;
+
+/**
+ * Unconstrained DTW under {@link PolarDistanceFunction}, evaluated one anti-diagonal at a time. Cells of an
+ * anti-diagonal only depend on the two before it, so each diagonal is a straight loop over primitive arrays that
+ * {@link VectorKernel} runs with the incubating Vector API. The vector kernel is used when the
+ * {@code jdk.incubator.vector} module is present ({@code --add-modules jdk.incubator.vector}) unless
+ * {@code -Dzapphyre.dtw.scalar=true}; otherwise the same loop runs scalar. Results equal {@link SimpleDTW} within
+ * floating-point rounding.
+ */
+public class VectorizedDTW {
+    static final boolean VECTOR_AVAILABLE = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()
+            && !Boolean.getBoolean("zapphyre.dtw.scalar");
+
+    private final boolean vectorized;
+
+    private VectorizedDTW(boolean vectorized) {
+        this.vectorized = vectorized;
+    }
+
+    /**
+     * Vector kernel when available, scalar otherwise.
+     */
+    public static VectorizedDTW create() {
+        return new VectorizedDTW(VECTOR_AVAILABLE);
+    }
+
+    public static VectorizedDTW scalar() {
+        return new VectorizedDTW(false);
+    }
+
+    public boolean isVectorized() {
+        return vectorized;
+    }
+
+    public double compute(List<PolarCoords> series1, List<PolarCoords> series2) {
+        return compute(PolarSeries.of(series1), PolarSeries.of(series2));
+    }
+
+    public double compute(PolarSeries series1, PolarSeries series2) {
+        DtwEvent event = new DtwEvent();
+        event.begin();
+
+        int n = series1.length();
+        int m = series2.length();
+        if (n == 0 || m == 0) {
+            event.finish(n, m);
+            return n == m ? 0.0 : Double.POSITIVE_INFINITY;
+        }
+
+        // series2 reversed, so the cells of an anti-diagonal read both series at increasing indices
+        double[] xr = new double[m];
+        double[] yr = new double[m];
+        for (int j = 0; j < m; j++) {
+            xr[j] = series2.x[m - 1 - j];
+            yr[j] = series2.y[m - 1 - j];
+        }
+
+        // diagonal k holds cell (i, k - i) at index i; the 0th row and column are the +inf border, dtw[0][0] = 0
+        double[] prev2 = new double[n + 1];
+        double[] prev = new double[n + 1];
+        double[] curr = new double[n + 1];
+        prev[0] = 0.0;
+
+        for (int k = 1; k <= n + m; k++) {
+            int from = Math.max(1, k - m);
+            int to = Math.min(n, k - 1);
+            if (k <= m) curr[0] = Double.POSITIVE_INFINITY;
+            if (k <= n) curr[k] = Double.POSITIVE_INFINITY;
+
+            if (vectorized) {
+                VectorKernel.diagonal(series1.x, series1.y, xr, yr, m - k, prev2, prev, curr, from, to);
+            } else {
+                diagonal(series1.x, series1.y, xr, yr, m - k, prev2, prev, curr, from, to);
+            }
+
+            double[] swap = prev2;
+            prev2 = prev;
+            prev = curr;
+            curr = swap;
+        }
+
+        event.finish(n, m);
+        return prev[n];
+    }
+
+    /**
+     * Cells {@code from..to} of one anti-diagonal; {@code offset + i} indexes the reversed series2 point of row
+     * {@code i}.
+     */
+    static void diagonal(double[] x1, double[] y1, double[] xr, double[] yr, int offset,
+                         double[] prev2, double[] prev, double[] curr, int from, int to) {
+        for (int i = from; i <= to; i++) {
+            double dx = x1[i - 1] - xr[offset + i];
+            double dy = y1[i - 1] - yr[offset + i];
+            curr[i] = Math.sqrt(dx * dx + dy * dy) + Math.min(prev[i - 1], Math.min(prev[i], prev2[i - 1]));
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package org.zapphyre.dtw;
+
+/**
+ * Global path constraint for {@link SimpleDTW}: the inclusive, 1-based column range of row {@code i} of an
+ * {@code n × m} cost matrix. Ranges of consecutive rows must overlap or touch, start at column 1 on row 1 and
+ * end at column {@code m} on row {@code n}, so a warping path always exists.
+ */
+public interface WarpingWindow {
+
+    WarpingWindow UNCONSTRAINED = new WarpingWindow() {
+        @Override
+        public int from(int i, int n, int m) {
+            return 1;
+        }
+
+        @Override
+        public int to(int i, int n, int m) {
+            return m;
+        }
+    };
+
+    int from(int i, int n, int m);
+
+    int to(int i, int n, int m);
+
+    static WarpingWindow unconstrained() {
+        return UNCONSTRAINED;
+    }
+
+    /**
+     * Sakoe-Chiba band: columns within {@code radius} of the diagonal, which is scaled for series of unequal length.
+     */
+    static WarpingWindow sakoeChiba(int radius) {
+        if (radius < 0) throw new IllegalArgumentException("radius must not be negative: " + radius);
+        return new SakoeChibaWindow(radius);
+    }
+
+    /**
+     * Itakura parallelogram: the warping path's local slope stays within {@code [1 / maxSlope, maxSlope]} of the
+     * scaled diagonal. Always contains the diagonal itself, so it stays usable for very unequal lengths.
+     */
+    static WarpingWindow itakura(double maxSlope) {
+        if (!(maxSlope > 1)) throw new IllegalArgumentException("maxSlope must be greater than 1: " + maxSlope);
+        return new ItakuraWindow(maxSlope);
+    }
+}
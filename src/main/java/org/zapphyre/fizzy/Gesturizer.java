@@ -4,13 +4,23 @@ import lombok.Builder;
 import lombok.Value;
 import org.zapphyre.fizzy.grid.Node;
 import org.zapphyre.fizzy.matcher.build.GestureSupplier;
+import org.zapphyre.fizzy.metrics.GestureMetrics;
+import org.zapphyre.jfr.GestureSampleEvent;
+import org.zapphyre.jfr.IdleWindowEvent;
+import org.zapphyre.jfr.PathEmittedEvent;
 import org.zapphyre.model.ENextNodeDirection;
 import org.zapphyre.model.PolarCoords;
 import reactor.core.Disposable;
+import reactor.core.Disposables;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
 
 import java.time.Duration;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 @Value
@@ -25,6 +35,8 @@ public class Gesturizer {
     int gestureDuration = 210;
     @Builder.Default
     String pathBegin = "0";
+    @Builder.Default
+    GestureMetrics metrics = GestureMetrics.noop();
 
     public static Gesturizer withDefaults() {
         return Gesturizer.builder().build();
@@ -36,6 +48,8 @@ public class Gesturizer {
 
     public GestureSupplier pathCompose(Flux<PolarCoords> stream) {
         final AtomicReference<Node> next = new AtomicReference<>(defaultNode());
+        final AtomicInteger samples = new AtomicInteger();
+        final AtomicLong lastSampleNanos = new AtomicLong();
 
         return supplier -> {
             Disposable windowDisp = stream.window(Duration.ofMillis(gestureDuration))
@@ -43,15 +57,108 @@ public class Gesturizer {
                     .filter(List::isEmpty)
                     .filter(_ -> !next.get().getPath().equals(pathBegin))
                     .subscribe(q -> {
-                        supplier.accept(next.get().getPath());
+                        String path = next.get().getPath();
+                        IdleWindowEvent.emit(path.length());
+                        if (metrics.enabled()) {
+                            metrics.gestureCompleted(samples.getAndSet(0), path.length() - pathBegin.length(),
+                                    System.nanoTime() - lastSampleNanos.get());
+                        }
+
+                        PathEmittedEvent emitted = new PathEmittedEvent();
+                        emitted.begin();
+                        supplier.accept(path);
+                        emitted.finish(path);
                         next.set(defaultNode());
                     });
 
-            return stream.map(q -> next.get().directionFromTheta(q))
-                    .map(q -> next.get().movement(q))
+            return stream.doOnNext(q -> {
+                        if (metrics.enabled()) {
+                            samples.incrementAndGet();
+                            lastSampleNanos.set(System.nanoTime());
+                        }
+                    })
+                    .map(q -> {
+                        GestureSampleEvent event = new GestureSampleEvent();
+                        event.begin();
+                        Node node = next.get();
+                        Node moved = node.movement(node.directionFromTheta(q));
+                        event.finish(moved.getPath().length());
+                        return moved;
+                    })
                     .doOnComplete(windowDisp::dispose)
                     .doOnCancel(windowDisp::dispose)
                     .subscribe(next::set);
         };
     }
+
+    /**
+     * Incremental form of {@link #pathCompose}: one inner flux per gesture, emitting the {@code pathBegin} characters
+     * and then each direction digit as {@link Node#movement} reaches a new node. An inner flux completes on the same
+     * idle window that makes {@code pathCompose} emit, or when the stream completes, so a
+     * {@link org.zapphyre.fizzy.matcher.MatchSession} per inner flux scores exactly the path {@code pathCompose}
+     * hands over, before the idle window closes.
+     */
+    public Flux<Flux<Character>> directionCompose(Flux<PolarCoords> stream) {
+        return Flux.create(gestures -> {
+            final AtomicReference<Node> next = new AtomicReference<>(defaultNode());
+            final Object lock = new Object();
+            final AtomicReference<Sinks.Many<Character>> gesture = new AtomicReference<>();
+            // state changes under the lock queue their signals in order; they are delivered after the lock is
+            // released, by one thread at a time, so a subscriber matching synchronously never holds up the window
+            final Queue<Runnable> signals = new ConcurrentLinkedQueue<>();
+            final AtomicInteger wip = new AtomicInteger();
+            final Runnable drain = () -> {
+                if (wip.getAndIncrement() != 0) return;
+                do {
+                    for (Runnable signal; (signal = signals.poll()) != null; ) signal.run();
+                } while (wip.decrementAndGet() != 0);
+            };
+
+            Disposable windowDisp = stream.window(Duration.ofMillis(gestureDuration))
+                    .flatMap(Flux::collectList)
+                    .filter(List::isEmpty)
+                    .subscribe(q -> {
+                        synchronized (lock) {
+                            if (next.get().getPath().equals(pathBegin)) return;
+                            next.set(defaultNode());
+                            Sinks.Many<Character> ended = gesture.getAndSet(null);
+                            if (ended != null) signals.add(ended::tryEmitComplete);
+                        }
+                        drain.run();
+                    });
+
+            Disposable samplesDisp = stream.subscribe(q -> {
+                synchronized (lock) {
+                    Node node = next.get();
+                    Node moved = node.movement(node.directionFromTheta(q));
+                    if (moved == node) return;
+                    next.set(moved);
+
+                    Sinks.Many<Character> current = gesture.get();
+                    if (current == null) {
+                        Sinks.Many<Character> started = Sinks.many().unicast().onBackpressureBuffer();
+                        gesture.set(started);
+                        signals.add(() -> {
+                            gestures.next(started.asFlux());
+                            for (char c : pathBegin.toCharArray()) started.tryEmitNext(c);
+                        });
+                        current = started;
+                    }
+                    Sinks.Many<Character> target = current;
+                    char direction = moved.getPath().charAt(moved.getPath().length() - 1);
+                    signals.add(() -> target.tryEmitNext(direction));
+                }
+                drain.run();
+            }, gestures::error, () -> {
+                synchronized (lock) {
+                    Sinks.Many<Character> ended = gesture.getAndSet(null);
+                    if (ended != null) signals.add(ended::tryEmitComplete);
+                    signals.add(gestures::complete);
+                }
+                drain.run();
+            });
+
+            gestures.onDispose(Disposables.composite(windowDisp, samplesDisp));
+        });
+    }
 }
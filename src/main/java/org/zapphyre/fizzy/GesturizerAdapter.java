@@ -1,44 +1,68 @@
 package org.zapphyre.fizzy;
 
-import lombok.RequiredArgsConstructor;
 import lombok.Value;
 import lombok.experimental.NonFinal;
 import lombok.extern.slf4j.Slf4j;
 import org.zapphyre.model.PolarCoords;
 import org.zapphyre.model.error.GestureTimeoutException;
 import reactor.core.Disposable;
+import reactor.core.Disposables;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledFuture;
+import java.time.Duration;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
 @Slf4j
 @Value
-@RequiredArgsConstructor
 public class GesturizerAdapter<T> {
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(4);
+
     Gesturizer gesturizer;
     Function<T, PolarCoords> polarCoordsMapper;
+    Duration timeout;
+    Scheduler timeoutScheduler;
 
     @NonFinal
-    Disposable gestureCb = Mono::empty;
+    volatile Disposable gestureCb = Mono::empty;
+
+    public GesturizerAdapter(Gesturizer gesturizer, Function<T, PolarCoords> polarCoordsMapper) {
+        this(gesturizer, polarCoordsMapper, DEFAULT_TIMEOUT, Schedulers.parallel());
+    }
+
+    /**
+     * @param timeout          how long a gesture may take before the sink fails with {@link GestureTimeoutException}
+     * @param timeoutScheduler shared timer for all pending gestures; its thread count stays fixed however many
+     *                         gestures are waiting
+     */
+    public GesturizerAdapter(Gesturizer gesturizer, Function<T, PolarCoords> polarCoordsMapper, Duration timeout,
+                             Scheduler timeoutScheduler) {
+        this.gesturizer = gesturizer;
+        this.polarCoordsMapper = polarCoordsMapper;
+        this.timeout = timeout;
+        this.timeoutScheduler = timeoutScheduler;
+    }
 
     public Consumer<MonoSink<String>> finishAfterFirst(Flux<T> polarStream) {
         return q -> {
-            ScheduledFuture<?> timeout = Executors.newSingleThreadScheduledExecutor().schedule(() -> {
+            Disposable timeoutTask = timeoutScheduler.schedule(() -> {
                 log.debug("Polar stream timeout");
-                q.error(new GestureTimeoutException("Gesture timeout after 4 sec"));
-            }, 4, TimeUnit.SECONDS);
-
-            q.onDispose(() -> timeout.cancel(true));
+                gesturizer.getMetrics().gestureTimedOut();
+                q.error(new GestureTimeoutException("Gesture timeout after " + timeout.toMillis() + " ms"));
+            }, timeout.toMillis(), TimeUnit.MILLISECONDS);
 
-            gestureCb = gesturizer
+            Disposable gesture = gesturizer
                     .pathCompose(polarStream.map(polarCoordsMapper))
                     .gestureCb(q::success);
+            gestureCb = gesture; // latest gesture, for dispose()
+
+            // the first gesture, a timeout or a cancel also ends this gesture's subscription to the polar stream
+            q.onDispose(Disposables.composite(timeoutTask, gesture));
         };
     }
 
@@ -3,6 +3,7 @@ package org.zapphyre.fizzy.grid;
 import lombok.EqualsAndHashCode;
 import lombok.RequiredArgsConstructor;
 import lombok.Value;
+import org.zapphyre.jfr.NodeTransitionEvent;
 import org.zapphyre.model.DirectedCoords;
 import org.zapphyre.model.ENextNodeDirection;
 import org.zapphyre.model.PolarCoords;
@@ -39,8 +40,10 @@ public class Node {
 
         if (relR > nodeLength || angleDiff > maxAngleDeltaRadians) {
             // Retrieve or create the next node
-            return nextNodes.computeIfAbsent(directedCoords.getDirection(),
+            Node next = nextNodes.computeIfAbsent(directedCoords.getDirection(),
                     d -> new Node(nodeLength, maxAngleDeltaRadians, r, theta, d, path + d.ordinal()));
+            NodeTransitionEvent.emit(path, directedCoords.getDirection());
+            return next;
         }
 
         return this;
@@ -0,0 +1,42 @@
+package org.zapphyre.fizzy.matcher;
+
+import java.util.Arrays;
+
+/**
+ * Per-thread, reusable primitive form of a filtered input: digit histogram and order signature.
+ * Loading an input allocates nothing once the order buffer has grown to the longest signature seen.
+ */
+final class InputScratch {
+    final int[] histogram = new int[Matcher.DIGITS];
+    final StringBuilder order = new StringBuilder();
+
+    InputScratch load(String input, int maxConsecutiveDrop) {
+        Arrays.fill(histogram, 0);
+        order.setLength(0);
+        if (input == null || input.isEmpty()) return this;
+
+        char current = Matcher.checkDigit(input.charAt(0));
+        int count = 1;
+
+        for (int i = 1; i < input.length(); i++) {
+            char c = Matcher.checkDigit(input.charAt(i));
+
+            if (c == current) {
+                count++;
+            } else {
+                add(current, count, maxConsecutiveDrop);
+                current = c;
+                count = 1;
+            }
+        }
+        add(current, count, maxConsecutiveDrop);
+        return this;
+    }
+
+    private void add(char digit, int length, int maxConsecutiveDrop) {
+        if (length <= maxConsecutiveDrop) return;
+
+        histogram[digit - '0'] += length;
+        order.append(digit);
+    }
+}
@@ -0,0 +1,364 @@
+package org.zapphyre.fizzy.matcher;
+
+import org.zapphyre.fizzy.model.CompiledTemplate;
+import org.zapphyre.fizzy.model.KnownValue;
+import org.zapphyre.fizzy.model.MatchResult;
+import org.zapphyre.fizzy.model.Run;
+import org.zapphyre.fizzy.model.ToleranceConfig;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Compiled template set stored in a file and matched straight from a memory-mapped segment: opening costs a
+ * header check, and scoring reads histograms and order signatures in place without creating heap objects.
+ * Keys and known strings are only decoded for the results that are returned.
+ * <p>
+ * Layout, all integers big-endian:
+ * <pre>
+ * header     magic, version, maxConsecutiveDrop, templates, knownValues, keys
+ * templates  per template: histogram[10], order offset, order length
+ * known      per known value: template, key, runs offset, run count
+ * keys       per key: offset, length
+ * data       order signatures (ASCII digits), known value runs (digit byte, length int), UTF-8 keys
+ * </pre>
+ * Data offsets are relative to the start of the data section. The library is bound to the
+ * {@code maxConsecutiveDrop} it was written with, since templates are stored already filtered.
+ */
+public class MappedTemplateLibrary<T> implements AutoCloseable {
+    static final int MAGIC = 0x46_5A_54_4C; // "FZTL"
+    static final int VERSION = 1;
+
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    private static final int HEADER_BYTES = 6 * Integer.BYTES;
+    private static final int TEMPLATE_BYTES = (Matcher.DIGITS + 2) * Integer.BYTES;
+    private static final int KNOWN_BYTES = 4 * Integer.BYTES;
+    private static final int KEY_BYTES = 2 * Integer.BYTES;
+    private static final int RUN_BYTES = 1 + Integer.BYTES;
+
+    private final Arena arena;
+    private final MemorySegment segment;
+    private final Matcher<T> scoring;
+    private final Function<String, T> keyDecoder;
+    private final int templateCount;
+    private final int knownCount;
+    private final long templatesAt;
+    private final long knownAt;
+    private final long keysAt;
+    private final long dataAt;
+    private final ThreadLocal<Cursor> cursors;
+
+    private MappedTemplateLibrary(Arena arena, MemorySegment segment, Matcher<T> scoring, Function<String, T> keyDecoder) {
+        this.arena = arena;
+        this.segment = segment;
+        this.scoring = scoring;
+        this.keyDecoder = keyDecoder;
+
+        if (segment.byteSize() < HEADER_BYTES || segment.get(INT, 0) != MAGIC)
+            throw new IllegalArgumentException("Not a template library");
+        if (segment.get(INT, 4) != VERSION)
+            throw new IllegalArgumentException("Unsupported template library version: " + segment.get(INT, 4));
+
+        int drop = segment.get(INT, 8);
+        if (drop != scoring.getToleranceConfig().getMaxConsecutiveDrop())
+            throw new IllegalArgumentException("Library was written for maxConsecutiveDrop " + drop);
+
+        this.templateCount = segment.get(INT, 12);
+        this.knownCount = segment.get(INT, 16);
+        int keyCount = segment.get(INT, 20);
+        if (templateCount < 0 || knownCount < 0 || keyCount < 0)
+            throw new IllegalArgumentException("Not a template library: negative section count");
+
+        this.templatesAt = HEADER_BYTES;
+        this.knownAt = templatesAt + (long) templateCount * TEMPLATE_BYTES;
+        this.keysAt = knownAt + (long) knownCount * KNOWN_BYTES;
+        this.dataAt = keysAt + (long) keyCount * KEY_BYTES;
+        if (dataAt > segment.byteSize())
+            throw new IllegalArgumentException("Not a template library: truncated to " + segment.byteSize() + " bytes");
+        this.cursors = ThreadLocal.withInitial(() -> new Cursor(segment, dataAt));
+    }
+
+    /**
+     * Maps {@code file} read-only. The mapping is shared, so the library can be matched from any thread
+     * until it is closed.
+     */
+    public static <T> MappedTemplateLibrary<T> open(Path file, ToleranceConfig config, Function<String, T> keyDecoder) {
+        Arena arena = Arena.ofShared();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MemorySegment segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+            Matcher<T> scoring = Matcher.<T>builder()
+                    .matchDefs(List.of())
+                    .toleranceConfig(config)
+                    .build();
+
+            return new MappedTemplateLibrary<>(arena, segment, scoring, keyDecoder);
+        } catch (IOException e) {
+            arena.close();
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    public static <T> void write(Matcher<T> matcher, Path file, Function<T, String> keyEncoder) {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            write(matcher, out, keyEncoder);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static <T> void write(Matcher<T> matcher, OutputStream target, Function<T, String> keyEncoder) throws IOException {
+        TemplateStore<T> store = matcher.getTemplates();
+        ByteArrayOutputStream tables = new ByteArrayOutputStream();
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        DataOutputStream tableOut = new DataOutputStream(tables);
+        DataOutputStream dataOut = new DataOutputStream(data);
+
+        for (CompiledTemplate template : store.getTemplates()) {
+            for (int count : template.getHistogram()) tableOut.writeInt(count);
+            tableOut.writeInt(dataOut.size());
+            tableOut.writeInt(template.getOrder().length());
+            dataOut.writeBytes(template.getOrder());
+        }
+
+        Map<T, Integer> keyIndex = new LinkedHashMap<>();
+        for (KnownValue<T> known : store.getKnownValues()) {
+            List<Run> runs = matcher.parseRuns(known.getKnownString());
+            tableOut.writeInt(known.getTemplate());
+            tableOut.writeInt(keyIndex.computeIfAbsent(known.getKey(), q -> keyIndex.size()));
+            tableOut.writeInt(dataOut.size());
+            tableOut.writeInt(runs.size());
+            for (Run run : runs) {
+                dataOut.writeByte(run.getDigit());
+                dataOut.writeInt(run.getLength());
+            }
+        }
+
+        for (T key : keyIndex.keySet()) {
+            byte[] encoded = keyEncoder.apply(key).getBytes(StandardCharsets.UTF_8);
+            tableOut.writeInt(dataOut.size());
+            tableOut.writeInt(encoded.length);
+            dataOut.write(encoded);
+        }
+
+        DataOutputStream out = new DataOutputStream(target);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(matcher.getToleranceConfig().getMaxConsecutiveDrop());
+        out.writeInt(store.size());
+        out.writeInt(store.getKnownValues().size());
+        out.writeInt(keyIndex.size());
+        tables.writeTo(out);
+        data.writeTo(out);
+        out.flush();
+    }
+
+    public int size() {
+        return templateCount;
+    }
+
+    /**
+     * Same ranking as {@link Matcher#match(String)} over the matcher the library was written from.
+     */
+    public List<MatchResult<T>> match(String input) {
+        double[] scores = scores(input);
+
+        return Arrays.stream(topKnownByScore(scores, knownCount))
+                .mapToObj(known -> result(known, scores))
+                .toList();
+    }
+
+    public List<MatchResult<T>> match(String input, int k) {
+        double[] scores = scores(input);
+
+        return Arrays.stream(topKnownByScore(scores, Math.clamp(k, 0, knownCount)))
+                .mapToObj(known -> result(known, scores))
+                .toList();
+    }
+
+    private double[] scores(String input) {
+        InputScratch in = scoring.scratch(input);
+        Cursor cursor = cursors.get();
+
+        double[] scores = new double[templateCount];
+        for (int t = 0; t < templateCount; t++) {
+            long at = templatesAt + (long) t * TEMPLATE_BYTES;
+            for (int d = 0; d < Matcher.DIGITS; d++) cursor.histogram[d] = segment.get(INT, at + (long) d * Integer.BYTES);
+            cursor.order.reset(segment.get(INT, at + Matcher.DIGITS * Integer.BYTES),
+                    segment.get(INT, at + (Matcher.DIGITS + 1) * Integer.BYTES));
+
+            scores[t] = scoring.combine(
+                    scoring.computeFrequencyScore(in.histogram, cursor.histogram),
+                    scoring.computeOrderScore(in.order, cursor.order, Double.NEGATIVE_INFINITY));
+        }
+        return scores;
+    }
+
+    /**
+     * The {@code k} best known values, best first and the lower index first on equal score, kept in a bounded
+     * primitive min-heap on the k-th best.
+     */
+    private int[] topKnownByScore(double[] scores, int k) {
+        int[] heap = new int[k];
+        double[] heapScores = new double[k];
+        int size = 0;
+        for (int known = 0; known < knownCount && k > 0; known++) {
+            double score = scores[template(known)];
+            if (size < k) {
+                heap[size] = known;
+                heapScores[size] = score;
+                siftUp(heap, heapScores, size++);
+            } else if (score > heapScores[0]) { // on equal score the earlier known value already in the heap wins
+                heap[0] = known;
+                heapScores[0] = score;
+                siftDown(heap, heapScores, size);
+            }
+        }
+
+        int[] ranked = new int[size];
+        while (size > 0) {
+            ranked[--size] = heap[0];
+            heap[0] = heap[size];
+            heapScores[0] = heapScores[size];
+            siftDown(heap, heapScores, size);
+        }
+        return ranked;
+    }
+
+    private static void siftUp(int[] heap, double[] heapScores, int at) {
+        while (at > 0) {
+            int parent = (at - 1) / 2;
+            if (!worse(heap, heapScores, at, parent)) return;
+            swap(heap, heapScores, at, parent);
+            at = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, double[] heapScores, int size) {
+        int at = 0;
+        while (true) {
+            int worst = at;
+            for (int child = 2 * at + 1; child <= 2 * at + 2 && child < size; child++) {
+                if (worse(heap, heapScores, child, worst)) worst = child;
+            }
+            if (worst == at) return;
+            swap(heap, heapScores, at, worst);
+            at = worst;
+        }
+    }
+
+    private static boolean worse(int[] heap, double[] heapScores, int a, int b) {
+        return heapScores[a] < heapScores[b] || heapScores[a] == heapScores[b] && heap[a] > heap[b];
+    }
+
+    private static void swap(int[] heap, double[] heapScores, int a, int b) {
+        int known = heap[a];
+        heap[a] = heap[b];
+        heap[b] = known;
+        double score = heapScores[a];
+        heapScores[a] = heapScores[b];
+        heapScores[b] = score;
+    }
+
+    private int template(int known) {
+        return segment.get(INT, knownAt + (long) known * KNOWN_BYTES);
+    }
+
+    private MatchResult<T> result(int known, double[] scores) {
+        long at = knownAt + (long) known * KNOWN_BYTES;
+        long keyAt = keysAt + (long) segment.get(INT, at + Integer.BYTES) * KEY_BYTES;
+
+        return MatchResult.<T>builder()
+                .knownString(knownString(segment.get(INT, at + 2L * Integer.BYTES), segment.get(INT, at + 3L * Integer.BYTES)))
+                .key(keyDecoder.apply(utf8(segment.get(INT, keyAt), segment.get(INT, keyAt + Integer.BYTES))))
+                .matchPercentage(scores[template(known)] * 100)
+                .build();
+    }
+
+    private String knownString(int offset, int runs) {
+        StringBuilder known = new StringBuilder();
+        for (int r = 0; r < runs; r++) {
+            long at = dataAt + offset + (long) r * RUN_BYTES;
+            char digit = (char) segment.get(ValueLayout.JAVA_BYTE, at);
+            known.repeat(digit, segment.get(INT, at + 1));
+        }
+        return known.toString();
+    }
+
+    private String utf8(int offset, int length) {
+        byte[] bytes = segment.asSlice(dataAt + offset, length).toArray(ValueLayout.JAVA_BYTE);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() {
+        arena.close();
+    }
+
+    /**
+     * Per-thread view used while scoring: a histogram buffer and a reusable window over an order signature.
+     */
+    private static final class Cursor {
+        final int[] histogram = new int[Matcher.DIGITS];
+        final SegmentChars order;
+
+        Cursor(MemorySegment segment, long dataAt) {
+            this.order = new SegmentChars(segment, dataAt);
+        }
+    }
+
+    private static final class SegmentChars implements CharSequence {
+        private final MemorySegment segment;
+        private final long dataAt;
+        private long offset;
+        private int length;
+
+        SegmentChars(MemorySegment segment, long dataAt) {
+            this.segment = segment;
+            this.dataAt = dataAt;
+        }
+
+        void reset(int offset, int length) {
+            this.offset = dataAt + offset;
+            this.length = length;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) segment.get(ValueLayout.JAVA_BYTE, offset + index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            StringBuilder sub = new StringBuilder(end - start);
+            for (int i = start; i < end; i++) sub.append(charAt(i));
+            return sub;
+        }
+
+        @Override
+        public String toString() {
+            return subSequence(0, length).toString();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package org.zapphyre.fizzy.matcher;
+
+import lombok.Value;
+import org.zapphyre.fizzy.model.MatchResult;
+import org.zapphyre.fizzy.model.ToleranceConfig;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU cache in front of {@link Matcher#match(String)}.
+ * <p>
+ * Entries are keyed by what scoring actually reads from the input, its filtered order signature and digit
+ * histogram, plus the {@link ToleranceConfig}; every raw input collapsing to the same filtered runs shares one
+ * entry. The matcher is looked up on each call, and the cache empties itself as soon as it sees a different
+ * template store, so it can sit in front of a {@link TemplateRegistry}.
+ */
+public class MatchCache<T> {
+    private final Supplier<Matcher<T>> matchers;
+    private final int maxSize;
+    private final Map<Key, List<MatchResult<T>>> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private TemplateStore<T> filledFor;
+
+    public MatchCache(Supplier<Matcher<T>> matchers, int maxSize) {
+        if (maxSize <= 0) throw new IllegalArgumentException("Cache size must be positive: " + maxSize);
+
+        this.matchers = matchers;
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, List<MatchResult<T>>> eldest) {
+                boolean evict = size() > MatchCache.this.maxSize;
+                if (evict) evictions.increment();
+                return evict;
+            }
+        };
+    }
+
+    public static <T> MatchCache<T> of(Matcher<T> matcher, int maxSize) {
+        return new MatchCache<>(() -> matcher, maxSize);
+    }
+
+    public static <T> MatchCache<T> of(TemplateRegistry<T> registry, int maxSize) {
+        return new MatchCache<>(registry::current, maxSize);
+    }
+
+    public List<MatchResult<T>> match(String input) {
+        Matcher<T> matcher = matchers.get();
+        Key key = Key.of(signature(matcher.scratch(input)), matcher.getToleranceConfig());
+
+        synchronized (entries) {
+            if (filledFor != matcher.getTemplates()) {
+                entries.clear();
+                filledFor = matcher.getTemplates();
+            }
+
+            List<MatchResult<T>> cached = entries.get(key);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+        }
+
+        misses.increment();
+        List<MatchResult<T>> results = matcher.match(input);
+
+        synchronized (entries) {
+            // a template change while matching makes these results stale, keep them out
+            if (filledFor == matcher.getTemplates()) entries.put(key, results);
+        }
+        return results;
+    }
+
+    public void invalidate() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    static String signature(InputScratch in) {
+        StringBuilder signature = new StringBuilder(in.order.length() + 4 * Matcher.DIGITS).append(in.order);
+        for (int count : in.histogram) signature.append(':').append(count);
+        return signature.toString();
+    }
+
+    @Value(staticConstructor = "of")
+    static class Key {
+        String signature;
+        ToleranceConfig config;
+    }
+}
@@ -0,0 +1,181 @@
+package org.zapphyre.fizzy.matcher;
+
+import org.zapphyre.fizzy.model.CompiledTemplate;
+import org.zapphyre.fizzy.model.KnownValue;
+import org.zapphyre.fizzy.model.MatchResult;
+
+import java.util.*;
+
+/**
+ * Scores a path while it grows, one direction digit at a time. Keeps the filtered-run histogram of the input and
+ * one edit-distance row per template, so each digit costs O(order length) per template at most.
+ * <p>
+ * {@link #results()} ranks exactly like {@link Matcher#match(String)} on the digits seen so far. Not thread-safe;
+ * use one session per gesture.
+ */
+public class MatchSession<T> {
+    private final Matcher<T> matcher;
+    private final int[] histogram = new int[Matcher.DIGITS];
+    private final StringBuilder order = new StringBuilder();
+    private final int[][] rows;
+
+    private char current;
+    private int currentLength;
+
+    MatchSession(Matcher<T> matcher) {
+        this.matcher = matcher;
+        this.rows = new int[matcher.getTemplates().size()][];
+        reset();
+    }
+
+    public void reset() {
+        Arrays.fill(histogram, 0);
+        order.setLength(0);
+        current = 0;
+        currentLength = 0;
+
+        for (int t = 0; t < rows.length; t++) {
+            int m = matcher.getTemplates().getTemplates().get(t).getOrder().length();
+            rows[t] = new int[m + 1];
+            for (int i = 0; i <= m; i++) rows[t][i] = i;
+        }
+    }
+
+    public MatchSession<T> accept(CharSequence digits) {
+        for (int i = 0; i < digits.length(); i++) accept(digits.charAt(i));
+        return this;
+    }
+
+    public MatchSession<T> accept(char digit) {
+        Matcher.checkDigit(digit);
+
+        if (digit == current) {
+            currentLength++;
+        } else {
+            current = digit;
+            currentLength = 1;
+        }
+
+        int drop = matcher.getToleranceConfig().getMaxConsecutiveDrop();
+        if (currentLength > drop + 1) {
+            histogram[digit - '0']++;
+        } else if (currentLength == drop + 1) {
+            // run just survived the filter: it enters the histogram whole and extends the order signature
+            histogram[digit - '0'] += currentLength;
+            order.append(digit);
+            advanceRows(digit);
+        }
+
+        return this;
+    }
+
+    private void advanceRows(char digit) {
+        for (int t = 0; t < rows.length; t++) {
+            String known = matcher.getTemplates().getTemplates().get(t).getOrder();
+            int[] row = rows[t];
+
+            int diagonal = row[0];
+            row[0]++;
+            for (int i = 1; i < row.length; i++) {
+                int above = row[i];
+                row[i] = Math.min(Math.min(above + 1, row[i - 1] + 1),
+                        diagonal + (known.charAt(i - 1) == digit ? 0 : 1));
+                diagonal = above;
+            }
+        }
+    }
+
+    /**
+     * Same ranking {@link Matcher#match(String)} would return for the digits accepted so far.
+     */
+    public List<MatchResult<T>> results() {
+        double[] scores = scores();
+
+        return matcher.getTemplates().getKnownValues().stream()
+                .map(known -> result(known, scores[known.getTemplate()]))
+                .sorted(Comparator.comparingDouble(MatchResult<T>::getMatchPercentage).reversed())
+                .toList();
+    }
+
+    public Optional<MatchResult<T>> leader() {
+        double[] scores = scores();
+
+        KnownValue<T> best = null;
+        for (KnownValue<T> known : matcher.getTemplates().getKnownValues()) {
+            if (best == null || scores[known.getTemplate()] > scores[best.getTemplate()]) best = known;
+        }
+
+        return Optional.ofNullable(best).map(known -> result(known, scores[known.getTemplate()]));
+    }
+
+    /**
+     * True once no template can reach {@code minPercentage} however the path continues. The order term is bounded
+     * by the current row minimum, which never decreases, and the input's future length; the frequency term by 1.
+     */
+    public boolean rejected(double minPercentage) {
+        double minScore = minPercentage / 100;
+
+        for (int t = 0; t < rows.length; t++) {
+            if (matcher.combine(1.0, orderScoreUpperBound(t)) >= minScore) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Best order score any continuation can reach: the final order length {@code L} is at least {@code n} and the
+     * distance at least {@code max(rowMin, L - m)}. Lengths up to {@code m + rowMin} are scored exactly. Beyond it
+     * the score is at most {@code 1 - (L - m) / ((1 + ratio) L + 1)}, since the allowed distance rounds up by less
+     * than one; that cap falls as {@code L} grows, so its value at the first such length covers all the rest.
+     */
+    double orderScoreUpperBound(int template) {
+        int[] row = rows[template];
+        int m = row.length - 1;
+        int n = order.length();
+        int rowMin = rowMinimum(template);
+
+        double bound = 0.0;
+        int exactUpTo = Math.max(n, m + rowMin);
+        for (int length = n; length <= exactUpTo; length++) {
+            int dist = Math.max(rowMin, length - m);
+            bound = Math.max(bound, matcher.orderScore(dist, Math.max(length, m)));
+        }
+
+        int tail = exactUpTo + 1;
+        double ratio = matcher.getToleranceConfig().getOrderEditDistanceRatio();
+        double tailCap = 1.0 - (double) (tail - m) / ((1 + ratio) * tail + 1);
+        return Math.max(bound, Math.max(0.0, tailCap));
+    }
+
+    int orderLength() {
+        return order.length();
+    }
+
+    /**
+     * Smallest edit distance from the order signature so far to any prefix of the template's; no continuation
+     * can end closer than that.
+     */
+    int rowMinimum(int template) {
+        return Arrays.stream(rows[template]).min().orElse(0);
+    }
+
+    private double[] scores() {
+        double[] scores = new double[rows.length];
+        for (int t = 0; t < rows.length; t++) {
+            CompiledTemplate known = matcher.getTemplates().getTemplates().get(t);
+            int m = known.getOrder().length();
+
+            scores[t] = matcher.combine(
+                    matcher.computeFrequencyScore(histogram, known.getHistogram()),
+                    matcher.orderScore(rows[t][m], Math.max(order.length(), m)));
+        }
+        return scores;
+    }
+
+    private MatchResult<T> result(KnownValue<T> known, double score) {
+        return MatchResult.<T>builder()
+                .knownString(known.getKnownString())
+                .key(known.getKey())
+                .matchPercentage(score * 100)
+                .build();
+    }
+}
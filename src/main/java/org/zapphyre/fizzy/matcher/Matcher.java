@@ -1,21 +1,89 @@
 package org.zapphyre.fizzy.matcher;
 
+import lombok.AccessLevel;
 import lombok.Builder;
+import lombok.Getter;
 import lombok.Value;
 import org.zapphyre.fizzy.matcher.build.ToleranceConfigurer;
+import org.zapphyre.fizzy.matcher.edit.BitParallelEditDistance;
+import org.zapphyre.fizzy.matcher.edit.EditDistance;
+import org.zapphyre.fizzy.metrics.GestureMetrics;
+import org.zapphyre.fizzy.model.CompiledMatchDef;
+import org.zapphyre.fizzy.model.CompiledTemplate;
+import org.zapphyre.fizzy.model.KnownValue;
 import org.zapphyre.fizzy.model.MatchDef;
 import org.zapphyre.fizzy.model.MatchResult;
 import org.zapphyre.fizzy.model.Run;
 import org.zapphyre.fizzy.model.ToleranceConfig;
+import org.zapphyre.jfr.MatchEvent;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @Value
-@Builder
 public class Matcher<T> {
+    static final int BATCH_SIZE = 1024;
+    static final int DIGITS = 10;
+
+    private static final ThreadLocal<InputScratch> SCRATCH = ThreadLocal.withInitial(InputScratch::new);
+
     List<MatchDef<T>> matchDefs;
     ToleranceConfig toleranceConfig;
+    EditDistance editDistance;
+    TemplateStore<T> templates;
+    @Getter(AccessLevel.NONE)
+    QGramIndex index; // null unless built with a q-gram length
+    @Getter(AccessLevel.NONE)
+    SignatureTrie trie; // null unless built with prefixTrie
+    GestureMetrics metrics;
+
+    /**
+     * @param qGram      length of the q-grams indexed to shortlist candidates in {@link #match(String, double)};
+     *                   0 (the default) matches without an index
+     * @param prefixTrie compute order distances with one walk over a trie of all signatures instead of per template
+     * @param metrics    receives latency and templates scored/pruned per match call; no-op when not set
+     */
+    @Builder
+    Matcher(List<MatchDef<T>> matchDefs, ToleranceConfig toleranceConfig, EditDistance editDistance, int qGram,
+            boolean prefixTrie, GestureMetrics metrics) {
+        this.matchDefs = matchDefs;
+        this.toleranceConfig = toleranceConfig;
+        this.editDistance = editDistance != null ? editDistance : new BitParallelEditDistance();
+        this.templates = TemplateStore.compile(matchDefs, known -> filterRuns(parseRuns(known)));
+        this.index = qGram > 0 ? QGramIndex.build(templates.getTemplates(), qGram) : null;
+        this.trie = prefixTrie ? SignatureTrie.build(templates.getTemplates()) : null;
+        this.metrics = metrics != null ? metrics : GestureMetrics.noop();
+    }
+
+    private Matcher(Matcher<T> config, TemplateStore<T> templates) {
+        this.matchDefs = templates.getDefinitions().stream().map(CompiledMatchDef::getDef).toList();
+        this.toleranceConfig = config.toleranceConfig;
+        this.editDistance = config.editDistance;
+        this.templates = templates;
+        this.index = config.index != null ? QGramIndex.build(templates.getTemplates(), config.index.getQ()) : null;
+        this.trie = config.trie != null ? SignatureTrie.build(templates.getTemplates()) : null;
+        this.metrics = config.metrics;
+    }
+
+    /**
+     * Matcher with the same configuration over already compiled definitions; nothing is parsed again.
+     */
+    Matcher<T> withDefinitions(List<CompiledMatchDef<T>> definitions) {
+        return new Matcher<>(this, TemplateStore.assemble(definitions));
+    }
+
+    CompiledMatchDef<T> compile(MatchDef<T> def) {
+        return TemplateStore.compile(def, known -> filterRuns(parseRuns(known)));
+    }
 
     public static <T> ToleranceConfigurer<T> create(List<MatchDef<T>> matchDefs) {
         return config -> Matcher.<T>builder()
@@ -25,33 +93,243 @@ public class Matcher<T> {
     }
 
     public List<MatchResult<T>> match(String input) {
-        List<Run> inputRuns = filterRuns(parseRuns(input));
-
-        return matchDefs.stream()
-                .flatMap(def -> def.getKnownValues().stream()
-                        .map(known -> {
-                            List<Run> knownRuns = filterRuns(parseRuns(known));
-                            double score = computeMatchScore(inputRuns, knownRuns);
-                            return MatchResult.<T>builder()
-                                    .knownString(known)
-                                    .key(def.getKey())
-                                    .matchPercentage(score * 100)
-                                    .build();
-                        }))
+        long start = metrics.enabled() ? System.nanoTime() : 0;
+        MatchEvent event = new MatchEvent();
+        event.begin();
+        InputScratch in = scratch(input);
+
+        double[] scores = trie != null
+                ? trieScores(in, Double.NEGATIVE_INFINITY)
+                : templates.getTemplates().stream()
+                .mapToDouble(known -> computeMatchScore(in, known))
+                .toArray();
+
+        List<MatchResult<T>> results = templates.getKnownValues().stream()
+                .map(known -> result(known, scores[known.getTemplate()]))
+                .sorted(Comparator.comparingDouble(MatchResult<T>::getMatchPercentage).reversed())
+                .toList();
+
+        if (metrics.enabled()) metrics.matched(System.nanoTime() - start, scores.length, 0);
+        event.finish(in.order.length(), scores.length, 0);
+        return results;
+    }
+
+    /**
+     * Best {@code k} results, best first. Templates are visited by descending score upper bound and the scan stops
+     * once no remaining template can beat the current k-th best, so edit distance only runs for viable candidates.
+     */
+    public List<MatchResult<T>> match(String input, int k) {
+        if (k <= 0) return List.of();
+
+        long start = metrics.enabled() ? System.nanoTime() : 0;
+        MatchEvent event = new MatchEvent();
+        event.begin();
+        InputScratch in = scratch(input);
+        double[] freqScores = new double[templates.size()];
+        double[] bounds = new double[templates.size()];
+        for (int i = 0; i < bounds.length; i++) {
+            CompiledTemplate known = templates.getTemplates().get(i);
+            freqScores[i] = computeFrequencyScore(in.histogram, known.getHistogram());
+            bounds[i] = combine(freqScores[i], orderScoreUpperBound(in.order, known.getOrder()));
+        }
+
+        // min-heap on the k-th best; on equal score the later known value is evicted first
+        PriorityQueue<Scored> heap = new PriorityQueue<>(k + 1, Comparator.comparingDouble(Scored::getScore)
+                .thenComparing(Comparator.comparingInt(Scored::getKnownValue).reversed()));
+
+        int scored = 0;
+        for (int template : byDescendingBound(bounds)) {
+            if (heap.size() == k && bounds[template] < heap.peek().getScore()) break;
+
+            CompiledTemplate known = templates.getTemplates().get(template);
+            double minOrderScore = heap.size() == k
+                    ? requiredOrderScore(heap.peek().getScore(), freqScores[template])
+                    : Double.NEGATIVE_INFINITY;
+            double orderScore = computeOrderScore(in.order, known.getOrder(), minOrderScore);
+            if (orderScore == Double.NEGATIVE_INFINITY) continue;
+
+            double score = combine(freqScores[template], orderScore);
+            scored++;
+
+            for (int knownValue : templates.getMembers()[template]) {
+                heap.add(Scored.of(knownValue, score));
+                if (heap.size() > k) heap.poll();
+            }
+        }
+
+        List<MatchResult<T>> results = heap.stream()
+                .sorted(Comparator.comparingDouble(Scored::getScore).reversed()
+                        .thenComparingInt(Scored::getKnownValue))
+                .map(best -> result(templates.getKnownValues().get(best.getKnownValue()), best.getScore()))
+                .toList();
+
+        if (metrics.enabled()) metrics.matched(System.nanoTime() - start, scored, templates.size() - scored);
+        event.finish(in.order.length(), scored, templates.size() - scored);
+        return results;
+    }
+
+    /**
+     * All results scoring at least {@code minPercentage}, best first. Templates whose score upper bound falls below
+     * the threshold are rejected before their edit distance is computed. With a q-gram index only the templates
+     * it shortlists for the edit distance the threshold still allows are looked at; with a prefix trie, subtrees
+     * beyond that distance are skipped.
+     */
+    public List<MatchResult<T>> match(String input, double minPercentage) {
+        long start = metrics.enabled() ? System.nanoTime() : 0;
+        MatchEvent event = new MatchEvent();
+        event.begin();
+        InputScratch in = scratch(input);
+        double minScore = minPercentage / 100;
+
+        double[] scores = index == null && trie != null
+                ? trieScores(in, requiredOrderScore(minScore, 1.0))
+                : thresholdScores(in, minScore);
+
+        List<MatchResult<T>> results = templates.getKnownValues().stream()
+                .filter(known -> scores[known.getTemplate()] >= minScore)
+                .map(known -> result(known, scores[known.getTemplate()]))
                 .sorted(Comparator.comparingDouble(MatchResult<T>::getMatchPercentage).reversed())
                 .toList();
+
+        if (metrics.enabled() || event.isEnabled()) {
+            int scored = (int) Arrays.stream(scores).filter(score -> score != Double.NEGATIVE_INFINITY).count();
+            if (metrics.enabled()) metrics.matched(System.nanoTime() - start, scored, scores.length - scored);
+            event.finish(in.order.length(), scored, scores.length - scored);
+        }
+        return results;
+    }
+
+    private double[] thresholdScores(InputScratch in, double minScore) {
+        double[] scores = new double[templates.size()];
+        Arrays.fill(scores, Double.NEGATIVE_INFINITY);
+
+        double minOrderScore = requiredOrderScore(minScore, 1.0);
+        int[] candidates = index != null
+                ? index.candidates(in.order, length -> maxOrderDistance(minOrderScore, Math.max(in.order.length(), length)))
+                : IntStream.range(0, scores.length).toArray();
+
+        for (int i : candidates) {
+            CompiledTemplate known = templates.getTemplates().get(i);
+            double freqScore = computeFrequencyScore(in.histogram, known.getHistogram());
+
+            scores[i] = combine(freqScore, orderScoreUpperBound(in.order, known.getOrder())) < minScore
+                    ? Double.NEGATIVE_INFINITY
+                    : combine(freqScore, computeOrderScore(in.order, known.getOrder(),
+                    requiredOrderScore(minScore, freqScore)));
+        }
+        return scores;
+    }
+
+    /**
+     * Scores from a single trie walk; templates whose order score provably stays below {@code minOrderScore}
+     * are left at {@link Double#NEGATIVE_INFINITY}.
+     */
+    private double[] trieScores(InputScratch in, double minOrderScore) {
+        int n = in.order.length();
+        int[] distances = new int[templates.size()];
+        trie.distances(in.order, distances, length -> maxOrderDistance(minOrderScore, Math.max(n, length)));
+
+        double[] scores = new double[templates.size()];
+        for (int t = 0; t < scores.length; t++) {
+            CompiledTemplate known = templates.getTemplates().get(t);
+            scores[t] = distances[t] == SignatureTrie.PRUNED
+                    ? Double.NEGATIVE_INFINITY
+                    : combine(computeFrequencyScore(in.histogram, known.getHistogram()),
+                    orderScore(distances[t], Math.max(n, known.getOrder().length())));
+        }
+        return scores;
+    }
+
+    /**
+     * Starts an incremental match of a path that is still being drawn, see {@link MatchSession}.
+     */
+    public MatchSession<T> session() {
+        return new MatchSession<>(this);
+    }
+
+    public List<List<MatchResult<T>>> matchAll(Collection<String> inputs) {
+        return matchAll(inputs, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Matches every input, one ranking per input in input order. Identical inputs are matched once; distinct ones
+     * are split into chunks run on {@code executor}.
+     */
+    public List<List<MatchResult<T>>> matchAll(Collection<String> inputs, Executor executor) {
+        Map<String, Integer> uniqueIndex = new HashMap<>();
+        List<String> unique = new ArrayList<>();
+        int[] slots = inputs.stream()
+                .mapToInt(input -> uniqueIndex.computeIfAbsent(input, q -> {
+                    unique.add(q);
+                    return unique.size() - 1;
+                }))
+                .toArray();
+
+        List<List<MatchResult<T>>> results = new ArrayList<>(Collections.nCopies(unique.size(), null));
+        int chunks = Math.min(unique.size(), Runtime.getRuntime().availableProcessors() * 4);
+        try {
+            CompletableFuture.allOf(IntStream.range(0, chunks)
+                            .mapToObj(chunk -> CompletableFuture.runAsync(() -> {
+                                // strided so that long and short inputs spread evenly over chunks
+                                for (int i = chunk; i < unique.size(); i += chunks) {
+                                    results.set(i, match(unique.get(i)));
+                                }
+                            }, executor))
+                            .toArray(CompletableFuture[]::new))
+                    .join();
+        } catch (CompletionException e) {
+            // same contract as match(String), e.g. IllegalArgumentException for an invalid input
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+
+        return Arrays.stream(slots)
+                .mapToObj(results::get)
+                .toList();
+    }
+
+    /**
+     * Streaming form of {@link #matchAll(Collection)}: inputs are batched, each batch is matched in parallel
+     * and rankings are emitted in input order.
+     */
+    public Flux<List<MatchResult<T>>> matchAll(Flux<String> inputs) {
+        return inputs.buffer(BATCH_SIZE)
+                .concatMap(batch -> Mono.fromCallable(() -> matchAll(batch))
+                        .subscribeOn(Schedulers.boundedElastic()))
+                .flatMapIterable(q -> q);
+    }
+
+    private MatchResult<T> result(KnownValue<T> known, double score) {
+        return MatchResult.<T>builder()
+                .knownString(known.getKnownString())
+                .key(known.getKey())
+                .matchPercentage(score * 100)
+                .build();
+    }
+
+    private static int[] byDescendingBound(double[] bounds) {
+        return IntStream.range(0, bounds.length)
+                .boxed()
+                .sorted(Comparator.comparingDouble((Integer i) -> bounds[i]).reversed())
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    @Value(staticConstructor = "of")
+    private static class Scored {
+        int knownValue;
+        double score;
     }
 
      List<Run> parseRuns(String input) {
         if (input == null || input.isEmpty()) return List.of();
 
         List<Run> runs = new ArrayList<>();
-        char current = input.charAt(0);
+        char current = checkDigit(input.charAt(0));
         int count = 1;
 
         for (int i = 1; i < input.length(); i++) {
-            char c = input.charAt(i);
-            if (!Character.isDigit(c)) throw new IllegalArgumentException("Invalid character: " + c);
+            char c = checkDigit(input.charAt(i));
 
             if (c == current) {
                 count++;
@@ -71,18 +349,52 @@ public class Matcher<T> {
                 .toList();
     }
 
+    InputScratch scratch(String input) {
+        return SCRATCH.get().load(input, toleranceConfig.getMaxConsecutiveDrop());
+    }
+
+    static char checkDigit(char c) {
+        if (c < '0' || c > '9') throw new IllegalArgumentException("Invalid character: " + c);
+        return c;
+    }
+
      double computeMatchScore(List<Run> input, List<Run> known) {
         double freqScore = computeFrequencyScore(input, known);
         double orderScore = computeOrderScore(input, known);
 
+        return combine(freqScore, orderScore);
+    }
+
+    /**
+     * Primitive counterpart of {@link #computeMatchScore(List, List)} producing the same score without allocating.
+     */
+    double computeMatchScore(InputScratch input, CompiledTemplate known) {
+        double freqScore = computeFrequencyScore(input.histogram, known.getHistogram());
+        double orderScore = computeOrderScore(input.order, known.getOrder(), Double.NEGATIVE_INFINITY);
+
+        return combine(freqScore, orderScore);
+    }
+
+    double combine(double freqScore, double orderScore) {
         return (1 - toleranceConfig.getOrderEditDistanceRatio()) * freqScore +
                 toleranceConfig.getOrderEditDistanceRatio() * orderScore;
     }
 
+    /**
+     * Lowest order score that still lets a template with the given frequency score reach {@code minScore}.
+     */
+    double requiredOrderScore(double minScore, double freqScore) {
+        double ratio = toleranceConfig.getOrderEditDistanceRatio();
+        if (ratio <= 0) return Double.NEGATIVE_INFINITY;
+
+        return (minScore - (1 - ratio) * freqScore) / ratio;
+    }
+
      double computeFrequencyScore(List<Run> input, List<Run> known) {
-        Map<Character, Integer> inputCounts = computeCounts(input);
-        Map<Character, Integer> knownCounts = computeCounts(known);
+        return computeFrequencyScore(computeCounts(input), computeCounts(known));
+    }
 
+     double computeFrequencyScore(Map<Character, Integer> inputCounts, Map<Character, Integer> knownCounts) {
         Set<Character> allDigits = new HashSet<>(inputCounts.keySet());
         allDigits.addAll(knownCounts.keySet());
 
@@ -107,6 +419,34 @@ public class Matcher<T> {
         return totalWeight > 0 ? matchWeight / totalWeight : 1.0;
     }
 
+    /**
+     * Same accumulation as the map-based variant; digits are visited in ascending order, which is also the
+     * iteration order of a small {@code HashSet<Character>} of digits, so both sums round identically.
+     */
+    double computeFrequencyScore(int[] inputCounts, int[] knownCounts) {
+        double tolerance = toleranceConfig.getFrequencyTolerancePercent() / 100.0;
+
+        double totalWeight = 0;
+        double matchWeight = 0;
+
+        for (int digit = 0; digit < DIGITS; digit++) {
+            int inCount = inputCounts[digit];
+            int knCount = knownCounts[digit];
+            if (inCount == 0 && knCount == 0) continue;
+
+            int max = Math.max(inCount, knCount);
+
+            double maxAllowed = knCount * (1 + tolerance);
+            double minAllowed = knCount * (1 - tolerance);
+
+            boolean withinRange = inCount >= Math.floor(minAllowed) && inCount <= Math.ceil(maxAllowed);
+            matchWeight += withinRange ? max : max * Math.max(0.0, 1.0 - Math.abs(inCount - knCount) / (knCount * tolerance + 1));
+            totalWeight += max;
+        }
+
+        return totalWeight > 0 ? matchWeight / totalWeight : 1.0;
+    }
+
      Map<Character, Integer> computeCounts(List<Run> runs) {
         Map<Character, Integer> counts = new HashMap<>();
         for (Run run : runs) {
@@ -115,34 +455,71 @@ public class Matcher<T> {
         return counts;
     }
 
+    static int[] histogram(List<Run> runs) {
+        int[] histogram = new int[DIGITS];
+        for (Run run : runs) {
+            histogram[checkDigit(run.getDigit()) - '0'] += run.getLength();
+        }
+        return histogram;
+    }
+
+    static String order(List<Run> runs) {
+        return runs.stream().map(r -> String.valueOf(r.getDigit())).collect(Collectors.joining());
+    }
+
      double computeOrderScore(List<Run> input, List<Run> known) {
-        String s1 = input.stream().map(r -> String.valueOf(r.getDigit())).collect(Collectors.joining());
-        String s2 = known.stream().map(r -> String.valueOf(r.getDigit())).collect(Collectors.joining());
+        return computeOrderScore(order(input), order(known));
+    }
 
+     double computeOrderScore(String s1, String s2) {
         if (s1.equals(s2)) return 1.0;
 
-        int dist = computeLevenshtein(s1, s2);
+        return orderScore(computeLevenshtein(s1, s2), Math.max(s1.length(), s2.length()));
+    }
+
+    /**
+     * Same as {@link #computeOrderScore(String, String)} when the result is at least {@code minOrderScore};
+     * otherwise the edit distance may stop early and {@link Double#NEGATIVE_INFINITY} is returned.
+     */
+    double computeOrderScore(CharSequence s1, CharSequence s2, double minOrderScore) {
+        if (CharSequence.compare(s1, s2) == 0) return 1.0;
+
         int maxLen = Math.max(s1.length(), s2.length());
-        int allowedDist = Math.max(1, (int) Math.ceil(toleranceConfig.getOrderEditDistanceRatio() * maxLen));
+        int limit = maxOrderDistance(minOrderScore, maxLen);
+        int dist = editDistance.distance(s1, s2, Math.max(limit, 0));
 
-        return Math.max(0.0, 1.0 - ((double) dist / (maxLen + allowedDist)));
+        return dist > limit ? Double.NEGATIVE_INFINITY : orderScore(dist, maxLen);
     }
 
-     int computeLevenshtein(String s1, String s2) {
-        int[][] dp = new int[s1.length() + 1][s2.length() + 1];
-        for (int i = 0; i <= s1.length(); i++) dp[i][0] = i;
-        for (int j = 0; j <= s2.length(); j++) dp[0][j] = j;
-
-        for (int i = 1; i <= s1.length(); i++) {
-            for (int j = 1; j <= s2.length(); j++) {
-                int cost = s1.charAt(i - 1) == s2.charAt(j - 1) ? 0 : 1;
-                dp[i][j] = Math.min(
-                        Math.min(dp[i - 1][j] + 1, dp[i][j - 1] + 1),
-                        dp[i - 1][j - 1] + cost
-                );
-            }
-        }
+    /**
+     * Largest edit distance whose order score can still reach {@code minOrderScore} at the given length.
+     */
+    int maxOrderDistance(double minOrderScore, int maxLen) {
+        if (minOrderScore <= 0) return Integer.MAX_VALUE;
+
+        // one extra edit of slack so rounding can never reject a viable distance
+        return (int) Math.floor((1 - minOrderScore) * (maxLen + allowedDistance(maxLen))) + 1;
+    }
+
+    /**
+     * Upper bound of {@link #computeOrderScore(String, String)}: differing strings are at least one edit and
+     * at least their length difference apart.
+     */
+    double orderScoreUpperBound(CharSequence s1, CharSequence s2) {
+        if (CharSequence.compare(s1, s2) == 0) return 1.0;
 
-        return dp[s1.length()][s2.length()];
+        return orderScore(Math.max(1, Math.abs(s1.length() - s2.length())), Math.max(s1.length(), s2.length()));
+    }
+
+    double orderScore(int dist, int maxLen) {
+        return Math.max(0.0, 1.0 - ((double) dist / (maxLen + allowedDistance(maxLen))));
+    }
+
+    int allowedDistance(int maxLen) {
+        return Math.max(1, (int) Math.ceil(toleranceConfig.getOrderEditDistanceRatio() * maxLen));
+    }
+
+     int computeLevenshtein(String s1, String s2) {
+        return editDistance.distance(s1, s2);
     }
 }
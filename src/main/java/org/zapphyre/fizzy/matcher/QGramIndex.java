@@ -0,0 +1,120 @@
+package org.zapphyre.fizzy.matcher;
+
+import org.zapphyre.fizzy.model.CompiledTemplate;
+
+import java.util.*;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Inverted index from digit q-grams of the template order signatures to templates, used to shortlist templates
+ * for threshold matching without scanning all of them.
+ * <p>
+ * Relies on the q-gram count filter: strings within edit distance {@code k} share at least
+ * {@code max(n, m) - q + 1 - k * q} q-grams (counted as multisets). Templates are bucketed by signature length, so
+ * a whole bucket whose bound is not positive is taken as is and only the others are looked up in the postings.
+ */
+final class QGramIndex {
+    private final int q;
+    private final int templateCount;
+    private final Map<Integer, int[]> postings; // gram -> interleaved template, occurrences
+    private final int[][] byLength; // signature length -> templates
+    private final int[] lengths; // template -> signature length
+    private final ThreadLocal<int[]> common;
+
+    private QGramIndex(int q, int templateCount, Map<Integer, int[]> postings, int[][] byLength, int[] lengths) {
+        this.q = q;
+        this.templateCount = templateCount;
+        this.postings = postings;
+        this.byLength = byLength;
+        this.lengths = lengths;
+        this.common = ThreadLocal.withInitial(() -> new int[templateCount]);
+    }
+
+    static QGramIndex build(List<CompiledTemplate> templates, int q) {
+        if (q < 1 || q > 9) throw new IllegalArgumentException("q-gram length must be within 1..9: " + q);
+
+        Map<Integer, List<int[]>> grams = new HashMap<>();
+        int maxLength = 0;
+        for (int t = 0; t < templates.size(); t++) {
+            String order = templates.get(t).getOrder();
+            maxLength = Math.max(maxLength, order.length());
+
+            int template = t;
+            grams(order, q).forEach((gram, count) ->
+                    grams.computeIfAbsent(gram, g -> new ArrayList<>()).add(new int[]{template, count}));
+        }
+
+        Map<Integer, int[]> postings = new HashMap<>();
+        grams.forEach((gram, list) -> {
+            int[] posting = new int[list.size() * 2];
+            for (int i = 0; i < list.size(); i++) {
+                posting[2 * i] = list.get(i)[0];
+                posting[2 * i + 1] = list.get(i)[1];
+            }
+            postings.put(gram, posting);
+        });
+
+        int[] lengths = templates.stream().mapToInt(template -> template.getOrder().length()).toArray();
+        int[] sizes = new int[maxLength + 1];
+        for (int length : lengths) sizes[length]++;
+        int[][] byLength = new int[maxLength + 1][];
+        for (int length = 0; length <= maxLength; length++) byLength[length] = new int[sizes[length]];
+        Arrays.fill(sizes, 0);
+        for (int t = 0; t < lengths.length; t++) byLength[lengths[t]][sizes[lengths[t]]++] = t;
+
+        return new QGramIndex(q, templates.size(), Map.copyOf(postings), byLength, lengths);
+    }
+
+    public int getQ() {
+        return q;
+    }
+
+    /**
+     * Templates that may lie within {@code maxDistance.applyAsInt(templateOrderLength)} edits of {@code order},
+     * in ascending template order. Every template outside the result is provably further away.
+     */
+    int[] candidates(CharSequence order, IntUnaryOperator maxDistance) {
+        int n = order.length();
+        int[] required = new int[byLength.length];
+        BitSet result = new BitSet(templateCount);
+
+        for (int length = 0; length < byLength.length; length++) {
+            long bound = Math.max(n, length) - q + 1 - (long) maxDistance.applyAsInt(length) * q;
+            required[length] = (int) Math.max(0, Math.min(bound, Integer.MAX_VALUE));
+            if (required[length] == 0) {
+                for (int t : byLength[length]) result.set(t);
+            }
+        }
+
+        int[] shared = common.get();
+        List<Integer> touched = new ArrayList<>();
+        grams(order, q).forEach((gram, count) -> {
+            int[] posting = postings.get(gram);
+            if (posting == null) return;
+
+            for (int i = 0; i < posting.length; i += 2) {
+                int t = posting[i];
+                if (shared[t] == 0) touched.add(t);
+                shared[t] += Math.min(count, posting[i + 1]);
+            }
+        });
+
+        for (int t : touched) {
+            int needed = required[lengths[t]];
+            if (needed > 0 && shared[t] >= needed) result.set(t);
+            shared[t] = 0;
+        }
+
+        return result.stream().toArray();
+    }
+
+    private static Map<Integer, Integer> grams(CharSequence order, int q) {
+        Map<Integer, Integer> grams = new HashMap<>();
+        for (int start = 0; start + q <= order.length(); start++) {
+            int gram = 0;
+            for (int i = start; i < start + q; i++) gram = gram * 10 + (order.charAt(i) - '0');
+            grams.merge(gram, 1, Integer::sum);
+        }
+        return grams;
+    }
+}
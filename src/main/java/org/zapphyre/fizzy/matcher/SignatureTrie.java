@@ -0,0 +1,115 @@
+package org.zapphyre.fizzy.matcher;
+
+import org.zapphyre.fizzy.model.CompiledTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Trie over the template order signatures. A depth-first walk computes one edit-distance row per trie node, so
+ * templates sharing a prefix share the rows for it, and a subtree is skipped once its row minimum, which can only
+ * grow further down, exceeds the distance any template below it may still have.
+ */
+final class SignatureTrie {
+    static final int PRUNED = Integer.MAX_VALUE;
+
+    private final int[][] children; // node -> child per digit, -1 when absent
+    private final int[][] terminals; // node -> templates whose signature ends here
+    private final int[] maxLength; // node -> longest signature in its subtree
+    private final int depth;
+
+    private SignatureTrie(int[][] children, int[][] terminals, int[] maxLength, int depth) {
+        this.children = children;
+        this.terminals = terminals;
+        this.maxLength = maxLength;
+        this.depth = depth;
+    }
+
+    static SignatureTrie build(List<CompiledTemplate> templates) {
+        List<int[]> children = new ArrayList<>();
+        List<List<Integer>> terminals = new ArrayList<>();
+        children.add(emptyNode());
+        terminals.add(new ArrayList<>());
+
+        for (int t = 0; t < templates.size(); t++) {
+            String order = templates.get(t).getOrder();
+            int node = 0;
+            for (int i = 0; i < order.length(); i++) {
+                int digit = order.charAt(i) - '0';
+                if (children.get(node)[digit] < 0) {
+                    children.get(node)[digit] = children.size();
+                    children.add(emptyNode());
+                    terminals.add(new ArrayList<>());
+                }
+                node = children.get(node)[digit];
+            }
+            terminals.get(node).add(t);
+        }
+
+        int[] maxLength = new int[children.size()];
+        int depth = subtreeMaxLength(0, 0, children, terminals, maxLength);
+
+        return new SignatureTrie(
+                children.toArray(int[][]::new),
+                terminals.stream().map(q -> q.stream().mapToInt(Integer::intValue).toArray()).toArray(int[][]::new),
+                maxLength,
+                depth);
+    }
+
+    private static int[] emptyNode() {
+        int[] node = new int[Matcher.DIGITS];
+        Arrays.fill(node, -1);
+        return node;
+    }
+
+    private static int subtreeMaxLength(int node, int length, List<int[]> children, List<List<Integer>> terminals, int[] out) {
+        int max = terminals.get(node).isEmpty() ? 0 : length;
+        for (int child : children.get(node)) {
+            if (child >= 0) max = Math.max(max, subtreeMaxLength(child, length + 1, children, terminals, out));
+        }
+        return out[node] = max;
+    }
+
+    /**
+     * Fills {@code distances[template]} with the edit distance between {@code input} and the template signature,
+     * or {@link #PRUNED} when it provably exceeds {@code maxDistance.applyAsInt(longest signature length)} for the
+     * subtree holding it.
+     */
+    void distances(CharSequence input, int[] distances, IntUnaryOperator maxDistance) {
+        Arrays.fill(distances, PRUNED);
+
+        int n = input.length();
+        int[][] rows = new int[depth + 1][n + 1];
+        for (int j = 0; j <= n; j++) rows[0][j] = j;
+
+        walk(0, 0, input, rows, distances, maxDistance);
+    }
+
+    private void walk(int node, int level, CharSequence input, int[][] rows, int[] distances, IntUnaryOperator maxDistance) {
+        int[] row = rows[level];
+        int n = input.length();
+
+        int rowMin = Integer.MAX_VALUE;
+        for (int value : row) rowMin = Math.min(rowMin, value);
+        if (rowMin > maxDistance.applyAsInt(maxLength[node])) return;
+
+        for (int template : terminals[node]) distances[template] = row[n];
+
+        for (int digit = 0; digit < Matcher.DIGITS; digit++) {
+            int child = children[node][digit];
+            if (child < 0) continue;
+
+            char c = (char) ('0' + digit);
+            int[] next = rows[level + 1];
+            next[0] = row[0] + 1;
+            for (int j = 1; j <= n; j++) {
+                next[j] = Math.min(Math.min(row[j] + 1, next[j - 1] + 1),
+                        row[j - 1] + (input.charAt(j - 1) == c ? 0 : 1));
+            }
+
+            walk(child, level + 1, input, rows, distances, maxDistance);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package org.zapphyre.fizzy.matcher;
+
+import org.zapphyre.fizzy.model.CompiledMatchDef;
+import org.zapphyre.fizzy.model.MatchDef;
+import org.zapphyre.fizzy.model.MatchResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * Live, mutable set of {@link MatchDef}s in front of immutable {@link Matcher} snapshots.
+ * <p>
+ * Every change compiles only the affected definition and publishes a new matcher with a single atomic swap;
+ * readers never lock and each {@link #current()} matcher stays consistent however long it is used.
+ * Concurrent writers retry on contention, the definition itself is compiled once outside the retry loop.
+ */
+public class TemplateRegistry<T> {
+    private final AtomicReference<Matcher<T>> snapshot;
+
+    public TemplateRegistry(Matcher<T> initial) {
+        this.snapshot = new AtomicReference<>(initial);
+    }
+
+    public Matcher<T> current() {
+        return snapshot.get();
+    }
+
+    public List<MatchResult<T>> match(String input) {
+        return current().match(input);
+    }
+
+    public Matcher<T> add(MatchDef<T> def) {
+        CompiledMatchDef<T> compiled = current().compile(def);
+
+        return update(definitions -> {
+            definitions.add(compiled);
+            return definitions;
+        });
+    }
+
+    /**
+     * Removes every definition registered under {@code key}.
+     */
+    public Matcher<T> remove(T key) {
+        return update(definitions -> {
+            definitions.removeIf(compiled -> Objects.equals(compiled.getDef().getKey(), key));
+            return definitions;
+        });
+    }
+
+    /**
+     * Puts {@code def} in place of the definitions sharing its key, or appends it when there are none.
+     */
+    public Matcher<T> replace(MatchDef<T> def) {
+        CompiledMatchDef<T> compiled = current().compile(def);
+
+        return update(definitions -> {
+            int at = -1;
+            for (int i = definitions.size() - 1; i >= 0; i--) {
+                if (Objects.equals(definitions.get(i).getDef().getKey(), def.getKey())) {
+                    definitions.remove(i);
+                    at = i;
+                }
+            }
+
+            definitions.add(at < 0 ? definitions.size() : at, compiled);
+            return definitions;
+        });
+    }
+
+    private Matcher<T> update(UnaryOperator<List<CompiledMatchDef<T>>> change) {
+        return snapshot.updateAndGet(matcher -> matcher.withDefinitions(
+                List.copyOf(change.apply(new ArrayList<>(matcher.getTemplates().getDefinitions())))));
+    }
+}
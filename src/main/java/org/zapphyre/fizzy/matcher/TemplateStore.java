@@ -0,0 +1,86 @@
+package org.zapphyre.fizzy.matcher;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Value;
+import org.zapphyre.fizzy.model.CompiledMatchDef;
+import org.zapphyre.fizzy.model.CompiledTemplate;
+import org.zapphyre.fizzy.model.KnownValue;
+import org.zapphyre.fizzy.model.MatchDef;
+import org.zapphyre.fizzy.model.Run;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Immutable, precompiled view of a {@link MatchDef} list. Known values are parsed and filtered once;
+ * values collapsing to the same filtered runs share a single {@link CompiledTemplate}. The per-definition
+ * compilation is kept so a changed store only recompiles the definitions that changed.
+ */
+@Value
+public class TemplateStore<T> {
+    List<CompiledTemplate> templates;
+    List<KnownValue<T>> knownValues; // in definition order
+    @Getter(AccessLevel.PACKAGE)
+    int[][] members; // per template, indexes into knownValues in ascending order
+    @Getter(AccessLevel.PACKAGE)
+    List<CompiledMatchDef<T>> definitions;
+
+    static <T> TemplateStore<T> compile(List<MatchDef<T>> matchDefs, Function<String, List<Run>> normalizer) {
+        return assemble(matchDefs.stream()
+                .map(def -> compile(def, normalizer))
+                .toList());
+    }
+
+    static <T> CompiledMatchDef<T> compile(MatchDef<T> def, Function<String, List<Run>> normalizer) {
+        return CompiledMatchDef.of(def, def.getKnownValues().stream()
+                .map(known -> compile(normalizer.apply(known)))
+                .toList());
+    }
+
+    /**
+     * Links already compiled definitions into a store, deduplicating templates across all of them.
+     */
+    static <T> TemplateStore<T> assemble(List<CompiledMatchDef<T>> definitions) {
+        Map<List<Run>, Integer> bySignature = new HashMap<>();
+        List<CompiledTemplate> templates = new ArrayList<>();
+        List<KnownValue<T>> knownValues = new ArrayList<>();
+
+        for (CompiledMatchDef<T> compiled : definitions) {
+            MatchDef<T> def = compiled.getDef();
+            for (int i = 0; i < def.getKnownValues().size(); i++) {
+                CompiledTemplate template = compiled.getTemplates().get(i);
+                int index = bySignature.computeIfAbsent(template.getRuns(), r -> {
+                    templates.add(template);
+                    return templates.size() - 1;
+                });
+                knownValues.add(KnownValue.of(def.getKey(), def.getKnownValues().get(i), index));
+            }
+        }
+
+        int[][] members = new int[templates.size()][];
+        int[] sizes = new int[templates.size()];
+        knownValues.forEach(known -> sizes[known.getTemplate()]++);
+        for (int i = 0; i < members.length; i++) members[i] = new int[sizes[i]];
+
+        Arrays.fill(sizes, 0);
+        for (int i = 0; i < knownValues.size(); i++) {
+            int template = knownValues.get(i).getTemplate();
+            members[template][sizes[template]++] = i;
+        }
+
+        return new TemplateStore<>(List.copyOf(templates), List.copyOf(knownValues), members, List.copyOf(definitions));
+    }
+
+    static CompiledTemplate compile(List<Run> runs) {
+        return CompiledTemplate.builder()
+                .runs(runs)
+                .histogram(Matcher.histogram(runs))
+                .order(Matcher.order(runs))
+                .build();
+    }
+
+    public int size() {
+        return templates.size();
+    }
+}
@@ -0,0 +1,69 @@
+package org.zapphyre.fizzy.matcher.edit;
+
+/**
+ * Myers/Hyyrö bit-vector Levenshtein: the shorter string is encoded in a single {@code long}, each character of the
+ * longer one advances a whole DP column in a handful of word operations. Allocation-free apart from a per-thread
+ * match-mask table. Stops early once the last-row value minus the remaining columns exceeds the limit.
+ * <p>
+ * Strings whose shorter side exceeds 64 characters or contains non-ASCII characters go to {@link ClassicEditDistance}.
+ */
+public class BitParallelEditDistance implements EditDistance {
+
+    private static final ThreadLocal<long[]> PEQ = ThreadLocal.withInitial(() -> new long[128]);
+
+    private final EditDistance fallback = new ClassicEditDistance();
+
+    @Override
+    public int distance(CharSequence s1, CharSequence s2, int limit) {
+        CharSequence pattern = s1.length() <= s2.length() ? s1 : s2;
+        CharSequence text = pattern == s1 ? s2 : s1;
+        int m = pattern.length();
+        int n = text.length();
+
+        if (n - m > limit) return EditDistance.exceeded(limit);
+        if (m == 0) return n;
+        if (m > Long.SIZE || !isAscii(pattern)) return fallback.distance(s1, s2, limit);
+
+        long[] peq = PEQ.get();
+        for (int i = 0; i < m; i++) peq[pattern.charAt(i)] |= 1L << i;
+
+        try {
+            long pv = -1L;
+            long mv = 0L;
+            long last = 1L << (m - 1);
+            int score = m;
+
+            for (int j = 0; j < n; j++) {
+                char c = text.charAt(j);
+                long eq = c < peq.length ? peq[c] : 0L;
+
+                long xv = eq | mv;
+                long xh = (((eq & pv) + pv) ^ pv) | eq;
+                long ph = mv | ~(xh | pv);
+                long mh = pv & xh;
+
+                if ((ph & last) != 0) score++;
+                else if ((mh & last) != 0) score--;
+
+                ph = (ph << 1) | 1L; // first row grows by one per column
+                mh <<= 1;
+                pv = mh | ~(xv | ph);
+                mv = ph & xv;
+
+                // each remaining column lowers the last row by at most one
+                if (score - (n - j - 1) > limit) return EditDistance.exceeded(limit);
+            }
+
+            return score;
+        } finally {
+            for (int i = 0; i < m; i++) peq[pattern.charAt(i)] = 0L;
+        }
+    }
+
+    private static boolean isAscii(CharSequence s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) >= 128) return false;
+        }
+        return true;
+    }
+}
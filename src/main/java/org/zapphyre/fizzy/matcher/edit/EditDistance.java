@@ -0,0 +1,22 @@
+package org.zapphyre.fizzy.matcher.edit;
+
+/**
+ * Levenshtein distance engine used by the matcher to compare order signatures.
+ */
+@FunctionalInterface
+public interface EditDistance {
+
+    /**
+     * Exact distance when it is at most {@code limit}; otherwise any value greater than {@code limit},
+     * which lets implementations stop as soon as the limit is provably exceeded.
+     */
+    int distance(CharSequence s1, CharSequence s2, int limit);
+
+    default int distance(CharSequence s1, CharSequence s2) {
+        return distance(s1, s2, Integer.MAX_VALUE);
+    }
+
+    static int exceeded(int limit) {
+        return limit == Integer.MAX_VALUE ? limit : limit + 1;
+    }
+}
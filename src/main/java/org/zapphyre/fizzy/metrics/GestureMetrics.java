@@ -0,0 +1,40 @@
+package org.zapphyre.fizzy.metrics;
+
+/**
+ * Metrics SPI the matcher and the gesture pipeline report into. Every method defaults to doing nothing;
+ * reporters check {@link #enabled()} before taking timestamps, so {@link #noop()} costs nothing on the hot path.
+ */
+public interface GestureMetrics {
+
+    GestureMetrics NOOP = new GestureMetrics() {
+        @Override
+        public boolean enabled() {
+            return false;
+        }
+    };
+
+    static GestureMetrics noop() {
+        return NOOP;
+    }
+
+    default boolean enabled() {
+        return true;
+    }
+
+    /**
+     * One match call: its latency, the templates fully scored and those skipped by bounds, index or trie pruning.
+     */
+    default void matched(long latencyNanos, int templatesScored, int templatesPruned) {
+    }
+
+    /**
+     * A gesture path handed to the {@link org.zapphyre.fizzy.matcher.build.GestureSupplier} callback.
+     *
+     * @param callbackDelayNanos time between the last sample of the gesture and the callback
+     */
+    default void gestureCompleted(int samples, int nodesCreated, long callbackDelayNanos) {
+    }
+
+    default void gestureTimedOut() {
+    }
+}
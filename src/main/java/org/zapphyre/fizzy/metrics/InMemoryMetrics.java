@@ -0,0 +1,41 @@
+package org.zapphyre.fizzy.metrics;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link GestureMetrics} kept in memory: latency and size histograms plus counters, safe to read while recording.
+ */
+@Getter
+public class InMemoryMetrics implements GestureMetrics {
+    private final LatencyHistogram matchLatencyNanos = new LatencyHistogram();
+    private final LatencyHistogram callbackDelayNanos = new LatencyHistogram();
+    private final LatencyHistogram samplesPerGesture = new LatencyHistogram();
+    private final LatencyHistogram nodesPerGesture = new LatencyHistogram();
+
+    private final LongAdder templatesScored = new LongAdder();
+    private final LongAdder templatesPruned = new LongAdder();
+    private final LongAdder gesturesCompleted = new LongAdder();
+    private final LongAdder gesturesTimedOut = new LongAdder();
+
+    @Override
+    public void matched(long latencyNanos, int templatesScored, int templatesPruned) {
+        matchLatencyNanos.record(latencyNanos);
+        this.templatesScored.add(templatesScored);
+        this.templatesPruned.add(templatesPruned);
+    }
+
+    @Override
+    public void gestureCompleted(int samples, int nodesCreated, long callbackDelayNanos) {
+        gesturesCompleted.increment();
+        samplesPerGesture.record(samples);
+        nodesPerGesture.record(nodesCreated);
+        this.callbackDelayNanos.record(callbackDelayNanos);
+    }
+
+    @Override
+    public void gestureTimedOut() {
+        gesturesTimedOut.increment();
+    }
+}
@@ -0,0 +1,82 @@
+package org.zapphyre.fizzy.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free, fixed-size histogram of non-negative longs in the style of HdrHistogram: values below 128 are exact,
+ * above that every power of two is split into 64 linear buckets, keeping the relative error under 1.6% over the
+ * whole {@code long} range in about 30 KB.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BITS = 7;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int HALF_COUNT = SUB_COUNT / 2;
+    private static final int BUCKETS = SUB_COUNT + (Long.SIZE - SUB_BITS) * HALF_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public void record(long value) {
+        long v = Math.max(0, value);
+        counts.incrementAndGet(bucket(v));
+        count.increment();
+        sum.add(v);
+        max.accumulate(v);
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public long max() {
+        return max.get();
+    }
+
+    public double mean() {
+        long n = count.sum();
+        return n == 0 ? 0.0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * Highest value equivalent to the recorded value at {@code percentile} (0..100), 0 when empty.
+     */
+    public long percentile(double percentile) {
+        long n = count.sum();
+        if (n == 0) return 0;
+
+        long target = Math.max(1, (long) Math.ceil(percentile / 100 * n));
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += counts.get(b);
+            if (seen >= target) return Math.min(highestEquivalent(b), max());
+        }
+        return max();
+    }
+
+    public void reset() {
+        for (int b = 0; b < BUCKETS; b++) counts.set(b, 0);
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    static int bucket(long v) {
+        if (v < SUB_COUNT) return (int) v;
+
+        int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(v)) - (SUB_BITS - 1);
+        int mantissa = (int) (v >>> shift);
+        return SUB_COUNT + (shift - 1) * HALF_COUNT + (mantissa - HALF_COUNT);
+    }
+
+    static long highestEquivalent(int bucket) {
+        if (bucket < SUB_COUNT) return bucket;
+
+        int shift = (bucket - SUB_COUNT) / HALF_COUNT + 1;
+        long mantissa = (bucket - SUB_COUNT) % HALF_COUNT + HALF_COUNT;
+        return ((mantissa + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,11 @@
+package org.zapphyre.fizzy.model;
+
+import lombok.Value;
+
+import java.util.List;
+
+@Value(staticConstructor = "of")
+public class CompiledMatchDef<T> {
+    MatchDef<T> def;
+    List<CompiledTemplate> templates; // one per known value, same order
+}
@@ -0,0 +1,19 @@
+package org.zapphyre.fizzy.model;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Known value reduced to what scoring actually reads: filtered runs, per-digit histogram and the order signature,
+ * kept in primitive form so scoring against it allocates nothing. One instance is shared by every known value that
+ * collapses to the same filtered runs.
+ */
+@Value
+@Builder
+public class CompiledTemplate {
+    List<Run> runs;
+    int[] histogram; // run lengths per digit '0'..'9'
+    String order;
+}
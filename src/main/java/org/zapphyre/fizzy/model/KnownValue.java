@@ -0,0 +1,10 @@
+package org.zapphyre.fizzy.model;
+
+import lombok.Value;
+
+@Value(staticConstructor = "of")
+public class KnownValue<T> {
+    T key;
+    String knownString;
+    int template; // index into the compiled templates of the owning store
+}
@@ -0,0 +1,26 @@
+package org.zapphyre.jfr;
+
+import jdk.jfr.*;
+
+@Name("org.zapphyre.DTW")
+@Label("DTW Compute")
+@Description("One dynamic time warping comparison of two polar series")
+@Category({"Zapphyre", "DTW"})
+@Threshold("1 ms")
+@StackTrace(false)
+public class DtwEvent extends Event {
+    @Label("Series 1 Length")
+    int length1;
+
+    @Label("Series 2 Length")
+    int length2;
+
+    public void finish(int length1, int length2) {
+        end();
+        if (shouldCommit()) {
+            this.length1 = length1;
+            this.length2 = length2;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package org.zapphyre.jfr;
+
+import jdk.jfr.*;
+
+@Name("org.zapphyre.GestureSample")
+@Label("Gesture Sample")
+@Description("A joystick sample received by Gesturizer.pathCompose, through direction and node movement")
+@Category({"Zapphyre", "Gesture"})
+@Threshold("1 ms")
+@StackTrace(false)
+public class GestureSampleEvent extends Event {
+    @Label("Path Length")
+    int pathLength;
+
+    public void finish(int pathLength) {
+        end();
+        if (shouldCommit()) {
+            this.pathLength = pathLength;
+            commit();
+        }
+    }
+}
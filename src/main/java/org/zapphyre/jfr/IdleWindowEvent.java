@@ -0,0 +1,21 @@
+package org.zapphyre.jfr;
+
+import jdk.jfr.*;
+
+@Name("org.zapphyre.IdleWindow")
+@Label("Idle Window Fired")
+@Description("A sample-free window closed a gesture in Gesturizer.pathCompose")
+@Category({"Zapphyre", "Gesture"})
+@StackTrace(false)
+public class IdleWindowEvent extends Event {
+    @Label("Path Length")
+    int pathLength;
+
+    public static void emit(int pathLength) {
+        IdleWindowEvent event = new IdleWindowEvent();
+        if (event.shouldCommit()) {
+            event.pathLength = pathLength;
+            event.commit();
+        }
+    }
+}
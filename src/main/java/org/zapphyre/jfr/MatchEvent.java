@@ -0,0 +1,30 @@
+package org.zapphyre.jfr;
+
+import jdk.jfr.*;
+
+@Name("org.zapphyre.Match")
+@Label("Match")
+@Description("One Matcher.match call")
+@Category({"Zapphyre", "Matcher"})
+@Threshold("1 ms")
+@StackTrace(false)
+public class MatchEvent extends Event {
+    @Label("Input Length")
+    int inputLength;
+
+    @Label("Templates Scored")
+    int templatesScored;
+
+    @Label("Templates Pruned")
+    int templatesPruned;
+
+    public void finish(int inputLength, int templatesScored, int templatesPruned) {
+        end();
+        if (shouldCommit()) {
+            this.inputLength = inputLength;
+            this.templatesScored = templatesScored;
+            this.templatesPruned = templatesPruned;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package org.zapphyre.jfr;
+
+import jdk.jfr.*;
+
+@Name("org.zapphyre.NodeTransition")
+@Label("Node Transition")
+@Description("Node.movement moved a gesture path on to its next node")
+@Category({"Zapphyre", "Gesture"})
+@StackTrace(false)
+public class NodeTransitionEvent extends Event {
+    @Label("From Path")
+    String fromPath;
+
+    @Label("Direction")
+    String direction;
+
+    public static void emit(String fromPath, Enum<?> direction) {
+        NodeTransitionEvent event = new NodeTransitionEvent();
+        if (event.shouldCommit()) {
+            event.fromPath = fromPath;
+            event.direction = direction.name();
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package org.zapphyre.jfr;
+
+import jdk.jfr.*;
+
+@Name("org.zapphyre.PathEmitted")
+@Label("Path Emitted")
+@Description("Gesture path handed to the GestureSupplier callback; the duration is the callback's")
+@Category({"Zapphyre", "Gesture"})
+@Threshold("1 ms")
+@StackTrace(false)
+public class PathEmittedEvent extends Event {
+    @Label("Path")
+    String path;
+
+    public void finish(String path) {
+        end();
+        if (shouldCommit()) {
+            this.path = path;
+            commit();
+        }
+    }
+}
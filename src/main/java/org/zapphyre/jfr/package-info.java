@@ -0,0 +1,6 @@
+/**
+ * JDK Flight Recorder events for the gesture pipeline and the matchers. Duration events carry a default
+ * {@link jdk.jfr.Threshold}, override it per recording, e.g. {@code jfr configure org.zapphyre.Match#threshold=5ms}
+ * or {@code Recording.enable("org.zapphyre.Match").withThreshold(...)}.
+ */
+package org.zapphyre.jfr;
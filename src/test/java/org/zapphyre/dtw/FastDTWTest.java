@@ -0,0 +1,55 @@
+package org.zapphyre.dtw;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.zapphyre.model.PolarCoords;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FastDTWTest {
+
+    private final DistanceFunction distance = new PolarDistanceFunction();
+
+    /**
+     * Reports the mean and worst relative error per radius. The repo holds no recorded gestures, so the traces are
+     * {@link SimpleDTWTest#trace} random walks of 150 to 300 samples.
+     */
+    @Test
+    void testCompute_errorAgainstExactDtw(TestReporter reporter) {
+        Random random = new Random(23);
+        SimpleDTW exact = new SimpleDTW(distance);
+
+        for (int radius : new int[]{1, 5, 20}) {
+            FastDTW fast = new FastDTW(distance, radius);
+            double totalError = 0;
+            double worstError = 0;
+            for (int round = 0; round < 30; round++) {
+                List<PolarCoords> s1 = SimpleDTWTest.trace(random, 150 + random.nextInt(150));
+                List<PolarCoords> s2 = SimpleDTWTest.trace(random, 150 + random.nextInt(150));
+                double reference = exact.compute(s1, s2);
+                double approximate = fast.compute(s1, s2);
+
+                assertTrue(approximate >= reference * (1 - 1e-12), "radius " + radius + " undercut exact DTW");
+                double error = (approximate - reference) / reference;
+                totalError += error;
+                worstError = Math.max(worstError, error);
+            }
+            String error = String.format("mean error %.2f%%, worst %.2f%%", 100 * totalError / 30, 100 * worstError);
+            reporter.publishEntry("FastDTW radius " + radius, error);
+            assertTrue(totalError / 30 < (radius == 1 ? 0.10 : 0.05), "radius " + radius + ": " + error);
+        }
+    }
+
+    @Test
+    void testCompute_exactWhenRadiusCoversSeries() {
+        Random random = new Random(29);
+        List<PolarCoords> s1 = SimpleDTWTest.trace(random, 40);
+        List<PolarCoords> s2 = SimpleDTWTest.trace(random, 37);
+
+        assertEquals(new SimpleDTW(distance).compute(s1, s2), new FastDTW(distance, 40).compute(s1, s2));
+        assertEquals(0.0, new FastDTW(distance, 3).compute(List.of(), List.of()));
+    }
+}
@@ -0,0 +1,100 @@
+package org.zapphyre.dtw;
+
+import org.junit.jupiter.api.Test;
+import org.zapphyre.model.PolarCoords;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NearestTemplateSearchTest {
+
+    @Test
+    void testNearest_sameAsBruteForce() {
+        Random random = new Random(5);
+        List<List<PolarCoords>> templates = new ArrayList<>();
+        for (int t = 0; t < 200; t++) templates.add(SimpleDTWTest.trace(random, 32 + random.nextInt(2) * 8));
+
+        for (WarpingWindow window : List.of(WarpingWindow.sakoeChiba(3), WarpingWindow.unconstrained())) {
+            NearestTemplateSearch search = new NearestTemplateSearch(templates, window);
+            SimpleDTW dtw = new SimpleDTW(new PolarDistanceFunction(), window);
+            int computed = 0;
+            int abandoned = 0;
+
+            for (int round = 0; round < 20; round++) {
+                List<PolarCoords> query = SimpleDTWTest.trace(random, 32);
+                int expected = -1;
+                double expectedDistance = Double.POSITIVE_INFINITY;
+                for (int t = 0; t < templates.size(); t++) {
+                    double distance = dtw.compute(query, templates.get(t));
+                    if (distance < expectedDistance) {
+                        expected = t;
+                        expectedDistance = distance;
+                    }
+                }
+
+                NearestTemplate nearest = search.nearest(query);
+                assertEquals(expected, nearest.getIndex());
+                assertEquals(expectedDistance, nearest.getDistance());
+                computed += nearest.getDtwComputed();
+                abandoned += nearest.getDtwAbandoned();
+            }
+            assertTrue(computed < 20 * templates.size(), "no template pruned by " + window);
+            assertTrue(abandoned > 0, "no DTW abandoned with " + window);
+        }
+    }
+
+    @Test
+    void testNearest_duplicateTemplatesResolveToLowestIndex() {
+        List<PolarCoords> trace = SimpleDTWTest.trace(new Random(3), 16);
+        NearestTemplateSearch search = new NearestTemplateSearch(
+                List.of(SimpleDTWTest.trace(new Random(4), 16), trace, trace), WarpingWindow.sakoeChiba(2));
+
+        assertEquals(1, search.nearest(trace).getIndex());
+        assertEquals(-1, new NearestTemplateSearch(List.of(), WarpingWindow.unconstrained()).nearest(trace).getIndex());
+    }
+
+    @Test
+    void testEnvelope_sameAsScanningEachRow() {
+        Random random = new Random(9);
+        WarpingWindow jumping = new WarpingWindow() { // ranges that move left as well
+            @Override
+            public int from(int i, int n, int m) {
+                return 1 + i * 7 % m;
+            }
+
+            @Override
+            public int to(int i, int n, int m) {
+                return Math.min(m, from(i, n, m) + i % 3);
+            }
+        };
+
+        for (WarpingWindow window : List.of(WarpingWindow.sakoeChiba(3), WarpingWindow.itakura(2),
+                WarpingWindow.unconstrained(), jumping)) {
+            for (int[] lengths : new int[][]{{20, 31}, {31, 20}, {24, 24}}) {
+                PolarSeries series = PolarSeries.of(SimpleDTWTest.trace(random, lengths[1]));
+                int n = lengths[0];
+                int m = series.length();
+                Envelope envelope = Envelope.of(series, n, window);
+
+                for (int i = 1; i <= n; i++) {
+                    double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+                    double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+                    for (int j = window.from(i, n, m); j <= window.to(i, n, m); j++) {
+                        minX = Math.min(minX, series.x[j - 1]);
+                        maxX = Math.max(maxX, series.x[j - 1]);
+                        minY = Math.min(minY, series.y[j - 1]);
+                        maxY = Math.max(maxY, series.y[j - 1]);
+                    }
+                    String row = window + " " + n + "x" + m + " row " + i;
+                    assertEquals(minX, envelope.minX[i - 1], row);
+                    assertEquals(maxX, envelope.maxX[i - 1], row);
+                    assertEquals(minY, envelope.minY[i - 1], row);
+                    assertEquals(maxY, envelope.maxY[i - 1], row);
+                }
+            }
+        }
+    }
+}
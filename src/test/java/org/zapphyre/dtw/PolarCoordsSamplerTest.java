@@ -0,0 +1,79 @@
+package org.zapphyre.dtw;
+
+import org.junit.jupiter.api.Test;
+import org.zapphyre.dtw.PolarCoordsSampler.TimedPolarCoords;
+import org.zapphyre.model.PolarCoords;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PolarCoordsSamplerTest {
+
+    @Test
+    void testInterpolate_matchesRescanningReference() {
+        Random random = new Random(59);
+        for (int round = 0; round < 20; round++) {
+            List<TimedPolarCoords> input = timed(random, 2 + random.nextInt(200));
+            Duration interval = Duration.ofMillis(1 + random.nextInt(10));
+
+            List<PolarCoords> expected = rescanning(input, interval.toMillis());
+            assertEquals(expected, PolarCoordsSampler.interpolate(input, interval));
+            assertEquals(expected, PolarCoordsSampler.resample(Flux.fromIterable(input), interval).collectList().block());
+        }
+    }
+
+    @Test
+    void testResample_emitsTicksAsSamplesArrive() {
+        List<TimedPolarCoords> input = List.of(
+                new TimedPolarCoords(PolarCoords.builder().radius(0).theta(0).build(), 0),
+                new TimedPolarCoords(PolarCoords.builder().radius(100).theta(0).build(), 10));
+
+        List<PolarCoords> ticks = PolarCoordsSampler.resample(Flux.fromIterable(input), Duration.ofMillis(4))
+                .collectList().block();
+        assertEquals(List.of(0.0, 40.0, 80.0), ticks.stream().map(PolarCoords::getRadius).toList());
+        assertThrows(IllegalArgumentException.class, () -> PolarCoordsSampler.interpolate(input, Duration.ZERO));
+    }
+
+    /**
+     * The original O(samples × ticks) algorithm: a fresh scan for the surrounding points of every tick.
+     */
+    private static List<PolarCoords> rescanning(List<TimedPolarCoords> input, long intervalMs) {
+        List<PolarCoords> result = new ArrayList<>();
+        for (long t = input.getFirst().timestampMs; t <= input.getLast().timestampMs; t += intervalMs) {
+            TimedPolarCoords prev = null;
+            TimedPolarCoords next = null;
+            for (TimedPolarCoords point : input) {
+                if (point.timestampMs <= t) {
+                    prev = point;
+                } else {
+                    next = point;
+                    break;
+                }
+            }
+            if (prev == null || next == null) continue;
+
+            double fraction = (double) (t - prev.timestampMs) / (next.timestampMs - prev.timestampMs);
+            double r = prev.coords.getRadius() + fraction * (next.coords.getRadius() - prev.coords.getRadius());
+            double theta = prev.coords.getTheta() + fraction * (next.coords.getTheta() - prev.coords.getTheta());
+            theta = theta % (2 * Math.PI);
+            if (theta < 0) theta += 2 * Math.PI;
+            result.add(PolarCoords.builder().radius(r).theta(theta).build());
+        }
+        return result;
+    }
+
+    private static List<TimedPolarCoords> timed(Random random, int length) {
+        List<TimedPolarCoords> input = new ArrayList<>();
+        long timestamp = random.nextInt(1_000);
+        for (PolarCoords coords : SimpleDTWTest.trace(random, length)) {
+            timestamp += random.nextInt(15); // irregular polling, duplicates included
+            input.add(new TimedPolarCoords(coords, timestamp));
+        }
+        return input;
+    }
+}
@@ -0,0 +1,144 @@
+package org.zapphyre.dtw;
+
+import org.junit.jupiter.api.Test;
+import org.zapphyre.model.PolarCoords;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SimpleDTWTest {
+
+    private final DistanceFunction distance = new PolarDistanceFunction();
+
+    @Test
+    void testCompute_unconstrainedEqualsFullMatrix() {
+        Random random = new Random(7);
+        SimpleDTW dtw = new SimpleDTW(distance);
+        for (int round = 0; round < 20; round++) {
+            List<PolarCoords> s1 = trace(random, 1 + random.nextInt(60));
+            List<PolarCoords> s2 = trace(random, 1 + random.nextInt(60));
+            assertEquals(fullMatrix(s1, s2), dtw.compute(s1, s2));
+        }
+    }
+
+    @Test
+    void testCompute_bandsBoundUnconstrainedFromAbove() {
+        Random random = new Random(11);
+        List<PolarCoords> s1 = trace(random, 80);
+        List<PolarCoords> s2 = trace(random, 33);
+        double exact = new SimpleDTW(distance).compute(s1, s2);
+
+        double previous = Double.POSITIVE_INFINITY;
+        for (int radius : new int[]{0, 1, 4, 16}) {
+            double banded = new SimpleDTW(distance, WarpingWindow.sakoeChiba(radius)).compute(s1, s2);
+            assertTrue(Double.isFinite(banded), "radius " + radius);
+            assertTrue(banded >= exact && banded <= previous, "radius " + radius);
+            previous = banded;
+        }
+        assertEquals(exact, new SimpleDTW(distance, WarpingWindow.sakoeChiba(80)).compute(s1, s2));
+
+        double itakura = new SimpleDTW(distance, WarpingWindow.itakura(2)).compute(s1, s2);
+        assertTrue(Double.isFinite(itakura) && itakura >= exact);
+    }
+
+    @Test
+    void testCompute_primitiveSeriesMatchesListPath() {
+        Random random = new Random(17);
+        List<PolarCoords> s1 = trace(random, 50);
+        List<PolarCoords> s2 = trace(random, 45);
+        SimpleDTW dtw = new SimpleDTW(distance, WarpingWindow.sakoeChiba(5));
+
+        assertEquals(dtw.compute(s1, s2), dtw.compute(PolarSeries.of(s1), PolarSeries.of(s2)));
+        assertEquals(distance.calcDistance(new double[]{s1.get(3).getRadius(), s1.get(3).getTheta()},
+                        new double[]{s2.get(8).getRadius(), s2.get(8).getTheta()}),
+                distance.calcDistance(PolarSeries.of(s1), 3, PolarSeries.of(s2), 8));
+    }
+
+    @Test
+    void testCompute_allocatesOnlyTheRows() {
+        Random random = new Random(19);
+        PolarSeries s1 = PolarSeries.of(trace(random, 500));
+        PolarSeries s2 = PolarSeries.of(trace(random, 500));
+        SimpleDTW dtw = new SimpleDTW(distance);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        double sink = 0;
+        for (int round = 0; round < 20; round++) sink += dtw.compute(s1, s2);
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        sink += dtw.compute(s1, s2);
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        assertTrue(sink > 0);
+        assertTrue(allocated < 3 * 8 * 500, "allocated " + allocated + " bytes for 500 x 500 cells");
+    }
+
+    @Test
+    void testCompute_abandonsOnlyAboveCutoff() {
+        Random random = new Random(37);
+        PolarSeries s1 = PolarSeries.of(trace(random, 60));
+        PolarSeries s2 = PolarSeries.of(trace(random, 70));
+        SimpleDTW dtw = new SimpleDTW(distance, WarpingWindow.sakoeChiba(10));
+        double exact = dtw.compute(s1, s2);
+
+        assertEquals(exact, dtw.compute(s1, s2, exact));
+        assertEquals(exact, dtw.compute(s1, s2, exact * 2));
+        assertEquals(Double.POSITIVE_INFINITY, dtw.compute(s1, s2, Math.nextDown(exact)));
+        assertEquals(Double.POSITIVE_INFINITY, dtw.compute(s1, s2, 0));
+        assertEquals(SimpleDTW.ABANDONED, dtw.computeOrAbandon(s1, s2, 0));
+
+        WarpingWindow gap = new WarpingWindow() { // row 30 reaches no column, so there is no warping path at all
+            @Override
+            public int from(int i, int n, int m) {
+                return i == 30 ? m + 1 : 1;
+            }
+
+            @Override
+            public int to(int i, int n, int m) {
+                return m;
+            }
+        };
+        assertEquals(Double.POSITIVE_INFINITY, new SimpleDTW(distance, gap).computeOrAbandon(s1, s2, exact));
+    }
+
+    @Test
+    void testCompute_emptySeries() {
+        SimpleDTW dtw = new SimpleDTW(distance, WarpingWindow.sakoeChiba(2));
+        assertEquals(0.0, dtw.compute(List.of(), List.of()));
+        assertEquals(Double.POSITIVE_INFINITY, dtw.compute(List.of(), trace(new Random(1), 3)));
+    }
+
+    private double fullMatrix(List<PolarCoords> s1, List<PolarCoords> s2) {
+        int n = s1.size();
+        int m = s2.size();
+        double[][] dtw = new double[n + 1][m + 1];
+        for (double[] row : dtw) Arrays.fill(row, Double.POSITIVE_INFINITY);
+        dtw[0][0] = 0.0;
+        for (int i = 1; i <= n; i++) {
+            for (int j = 1; j <= m; j++) {
+                double cost = distance.calcDistance(
+                        new double[]{s1.get(i - 1).getRadius(), s1.get(i - 1).getTheta()},
+                        new double[]{s2.get(j - 1).getRadius(), s2.get(j - 1).getTheta()});
+                dtw[i][j] = cost + Math.min(dtw[i - 1][j], Math.min(dtw[i][j - 1], dtw[i - 1][j - 1]));
+            }
+        }
+        return dtw[n][m];
+    }
+
+    static List<PolarCoords> trace(Random random, int length) {
+        double radius = 0;
+        double theta = 0;
+        List<PolarCoords> trace = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            radius = Math.max(0, Math.min(32_767, radius + random.nextGaussian() * 500));
+            theta = (theta + random.nextGaussian() * 0.1 + 2 * Math.PI) % (2 * Math.PI);
+            trace.add(PolarCoords.builder().radius(radius).theta(theta).build());
+        }
+        return trace;
+    }
+}
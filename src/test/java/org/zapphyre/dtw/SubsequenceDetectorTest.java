@@ -0,0 +1,78 @@
+package org.zapphyre.dtw;
+
+import org.junit.jupiter.api.Test;
+import org.zapphyre.model.PolarCoords;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SubsequenceDetectorTest {
+
+    @Test
+    void testDetect_findsChainedGesturesWithOffsets() {
+        Random random = new Random(41);
+        List<PolarCoords> circle = new ArrayList<>();
+        List<PolarCoords> stroke = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            circle.add(PolarCoords.builder().radius(20_000).theta(i * 2 * Math.PI / 20).build());
+            stroke.add(PolarCoords.builder().radius(1_500 * i).theta(Math.PI / 2).build());
+        }
+        Map<String, List<PolarCoords>> templates = new LinkedHashMap<>();
+        templates.put("circle", circle);
+        templates.put("stroke", stroke);
+
+        // noise, circle at 30..49, stroke chained right after at 50..69, noise
+        List<PolarCoords> stream = new ArrayList<>(noise(random, 30));
+        stream.addAll(circle);
+        stream.addAll(stroke);
+        stream.addAll(noise(random, 30));
+
+        List<SubsequenceMatch<String>> matches = SubsequenceDetector.<String>builder()
+                .templates(templates)
+                .threshold(1_000)
+                .build()
+                .detect(Flux.fromIterable(stream))
+                .collectList()
+                .block();
+
+        assertEquals(2, matches.size(), matches.toString());
+        assertEquals("circle", matches.get(0).getKey());
+        assertEquals(30, matches.get(0).getStart());
+        assertEquals(49, matches.get(0).getEnd());
+        assertEquals("stroke", matches.get(1).getKey());
+        assertEquals(50, matches.get(1).getStart());
+        assertEquals(69, matches.get(1).getEnd());
+        assertEquals(0.0, matches.get(1).getDistance(), 1e-6);
+    }
+
+    @Test
+    void testDetect_flushesMatchEndingTheStream() {
+        List<PolarCoords> stroke = List.of(
+                PolarCoords.builder().radius(0).theta(0).build(),
+                PolarCoords.builder().radius(10_000).theta(0).build(),
+                PolarCoords.builder().radius(20_000).theta(0).build());
+        SubsequenceDetector<Integer> detector = SubsequenceDetector.<Integer>builder()
+                .templates(Map.of(1, stroke))
+                .threshold(100)
+                .build();
+
+        List<SubsequenceMatch<Integer>> matches = detector.detect(Flux.fromIterable(stroke)).collectList().block();
+        assertEquals(1, matches.size());
+        assertEquals(0, matches.getFirst().getStart());
+        assertEquals(2, matches.getFirst().getEnd());
+    }
+
+    private static List<PolarCoords> noise(Random random, int length) {
+        List<PolarCoords> noise = new ArrayList<>();
+        for (int i = 0; i < length; i++) {
+            noise.add(PolarCoords.builder().radius(5_000 + random.nextInt(3_000)).theta(Math.PI + random.nextDouble()).build());
+        }
+        return noise;
+    }
+}
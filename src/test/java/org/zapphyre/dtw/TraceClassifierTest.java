@@ -0,0 +1,115 @@
+package org.zapphyre.dtw;
+
+import org.junit.jupiter.api.Test;
+import org.zapphyre.model.PolarCoords;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TraceClassifierTest {
+
+    @Test
+    void testMatch_ranksKeysByClosestTrace() {
+        Random random = new Random(47);
+        List<List<PolarCoords>> bases = List.of(
+                SimpleDTWTest.trace(random, 40), SimpleDTWTest.trace(random, 40), SimpleDTWTest.trace(random, 40));
+        TraceClassifier<String> classifier = TraceClassifier.<String>builder()
+                .traceDefs(List.of(
+                        def("a", bases.get(0), random),
+                        def("b", bases.get(1), random),
+                        def("c", bases.get(2), random)))
+                .window(WarpingWindow.sakoeChiba(8))
+                .build();
+
+        List<TraceMatchResult<String>> results = classifier.match(jitter(bases.get(1), random));
+        assertEquals(List.of("b"), results.stream().limit(1).map(TraceMatchResult::getKey).toList());
+        assertEquals(3, results.size());
+        assertTrue(results.get(0).getNormalizedDistance() <= results.get(1).getNormalizedDistance());
+        assertTrue(results.get(1).getNormalizedDistance() <= results.get(2).getNormalizedDistance());
+    }
+
+    @Test
+    void testClassify_votesMatchSequentialKnn() {
+        Random random = new Random(53);
+        List<TraceDef<Integer>> defs = new ArrayList<>();
+        for (int key = 0; key < 12; key++) defs.add(def(key, SimpleDTWTest.trace(random, 30 + random.nextInt(20)), random));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            TraceClassifier<Integer> classifier = TraceClassifier.<Integer>builder()
+                    .traceDefs(defs)
+                    .executor(executor)
+                    .parallelism(4) // 36 known traces, 9 per chunk
+                    .build();
+
+            for (int round = 0; round < 10; round++) {
+                TraceDef<Integer> target = defs.get(random.nextInt(defs.size()));
+                List<PolarCoords> query = jitter(target.getKnownTraces().getFirst(), random);
+
+                for (int k : new int[]{1, 5, 20, 40}) {
+                    assertEquals(sequentialKnn(defs, query, k), classifier.classify(query, k), "k " + k);
+                }
+                assertEquals(target.getKey(), classifier.classify(query, 5).getFirst().getKey());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Brute-force k-NN over every known trace in definition order, ranked the way {@link TraceClassifier#classify}
+     * documents it.
+     */
+    private static <T> List<TraceMatchResult<T>> sequentialKnn(List<TraceDef<T>> defs, List<PolarCoords> query, int k) {
+        SimpleDTW dtw = new SimpleDTW(new PolarDistanceFunction());
+        List<TraceMatchResult<T>> neighbours = new ArrayList<>();
+        for (TraceDef<T> def : defs) {
+            for (int known = 0; known < def.getKnownTraces().size(); known++) {
+                List<PolarCoords> trace = def.getKnownTraces().get(known);
+                neighbours.add(TraceMatchResult.<T>builder()
+                        .key(def.getKey())
+                        .knownTrace(known)
+                        .normalizedDistance(dtw.compute(query, trace) / (query.size() + trace.size()))
+                        .build());
+            }
+        }
+
+        Map<T, List<TraceMatchResult<T>>> byKey = new LinkedHashMap<>();
+        neighbours.stream()
+                .sorted(Comparator.comparingDouble(TraceMatchResult::getNormalizedDistance)) // stable: earlier trace first
+                .limit(k)
+                .forEach(neighbour -> byKey.computeIfAbsent(neighbour.getKey(), key -> new ArrayList<>()).add(neighbour));
+
+        return byKey.values().stream()
+                .sorted(Comparator.comparingInt((List<TraceMatchResult<T>> votes) -> votes.size()).reversed()
+                        .thenComparingDouble(votes -> votes.getFirst().getNormalizedDistance()))
+                .map(votes -> TraceMatchResult.<T>builder()
+                        .key(votes.getFirst().getKey())
+                        .knownTrace(votes.getFirst().getKnownTrace())
+                        .normalizedDistance(votes.getFirst().getNormalizedDistance())
+                        .votes(votes.size())
+                        .build())
+                .toList();
+    }
+
+    private static <T> TraceDef<T> def(T key, List<PolarCoords> base, Random random) {
+        return TraceDef.<T>builder()
+                .key(key)
+                .knownTraces(List.of(jitter(base, random), jitter(base, random), jitter(base, random)))
+                .build();
+    }
+
+    private static List<PolarCoords> jitter(List<PolarCoords> trace, Random random) {
+        return trace.stream()
+                .map(point -> point.withRadius(Math.max(0, point.getRadius() + random.nextGaussian() * 100)))
+                .toList();
+    }
+}
@@ -0,0 +1,102 @@
+package org.zapphyre.dtw;
+
+import org.junit.jupiter.api.Test;
+import org.zapphyre.model.PolarCoords;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TraceSimplifierTest {
+
+    @Test
+    void testSimplify_keepsNearestTemplateOnFractionOfSamples() {
+        Random random = new Random(43);
+        List<double[][]> shapes = new ArrayList<>();
+        for (int s = 0; s < 8; s++) shapes.add(waypoints(random));
+        List<List<PolarCoords>> templates = shapes.stream().map(shape -> stroke(shape, random, 0)).toList();
+
+        SimpleDTW dtw = new SimpleDTW(new PolarDistanceFunction());
+        for (TraceSimplifier simplifier : List.of(
+                TraceSimplifier.paa(40),
+                TraceSimplifier.ramerDouglasPeucker(300),
+                TraceSimplifier.deadBand(200, Math.toRadians(2)).andThen(TraceSimplifier.paa(40)))) {
+            List<List<PolarCoords>> simplified = templates.stream().map(simplifier::simplify).toList();
+            int agreed = 0;
+            int rawSamples = 0;
+            int simplifiedSamples = 0;
+            for (int q = 0; q < 40; q++) {
+                List<PolarCoords> query = stroke(shapes.get(q % shapes.size()), random, 150);
+                List<PolarCoords> reduced = simplifier.simplify(query);
+                rawSamples += query.size();
+                simplifiedSamples += reduced.size();
+                if (nearest(dtw, templates, query) == nearest(dtw, simplified, reduced)) agreed++;
+            }
+
+            String summary = String.format("simplified to %.1f%% of the samples, nearest template agrees on %d/40",
+                    100.0 * simplifiedSamples / rawSamples, agreed);
+            assertTrue(simplifiedSamples * 4 < rawSamples, summary);
+            assertTrue(agreed >= 38, summary);
+        }
+    }
+
+    @Test
+    void testDeadBand_collapsesRestingStick() {
+        List<PolarCoords> trace = new ArrayList<>();
+        for (int i = 0; i < 50; i++) trace.add(polar(10_000 + (i % 3), 1.0));
+        trace.add(polar(20_000, 1.0));
+        for (int i = 0; i < 50; i++) trace.add(polar(20_000, 1.0 + i * 1e-4));
+
+        List<PolarCoords> collapsed = TraceSimplifier.deadBand(100, 0.01).simplify(trace);
+        assertEquals(List.of(trace.get(0), trace.get(50), trace.getLast()), collapsed);
+        assertEquals(List.of(trace.get(0), trace.get(50)),
+                TraceSimplifier.collapseDeadBand(Flux.fromIterable(trace), 100, 0.01).collectList().block());
+        assertEquals(3, TraceSimplifier.aggregate(Flux.fromIterable(trace), 40).collectList().block().size());
+    }
+
+    private static int nearest(SimpleDTW dtw, List<List<PolarCoords>> templates, List<PolarCoords> query) {
+        int best = 0;
+        for (int t = 1; t < templates.size(); t++) {
+            if (dtw.compute(query, templates.get(t)) < dtw.compute(query, templates.get(best))) best = t;
+        }
+        return best;
+    }
+
+    private static double[][] waypoints(Random random) {
+        double[][] points = new double[5][];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = new double[]{random.nextInt(60_000) - 30_000, random.nextInt(60_000) - 30_000};
+        }
+        return points;
+    }
+
+    /**
+     * Joystick-like recording of a shape: 60 samples per leg plus a rest at every waypoint, with sensor noise.
+     */
+    private static List<PolarCoords> stroke(double[][] waypoints, Random random, double noise) {
+        List<PolarCoords> trace = new ArrayList<>();
+        for (int leg = 0; leg + 1 < waypoints.length; leg++) {
+            for (int i = 0; i < 60; i++) {
+                double f = i / 60.0;
+                trace.add(cartesian(waypoints[leg][0] + f * (waypoints[leg + 1][0] - waypoints[leg][0]) + random.nextGaussian() * noise,
+                        waypoints[leg][1] + f * (waypoints[leg + 1][1] - waypoints[leg][1]) + random.nextGaussian() * noise));
+            }
+            for (int i = 0; i < 20 + random.nextInt(20); i++) {
+                trace.add(cartesian(waypoints[leg + 1][0] + random.nextGaussian() * noise / 10,
+                        waypoints[leg + 1][1] + random.nextGaussian() * noise / 10));
+            }
+        }
+        return trace;
+    }
+
+    private static PolarCoords cartesian(double x, double y) {
+        return polar(Math.sqrt(x * x + y * y), (Math.atan2(y, x) + 2 * Math.PI) % (2 * Math.PI));
+    }
+
+    private static PolarCoords polar(double radius, double theta) {
+        return PolarCoords.builder().radius(radius).theta(theta).build();
+    }
+}
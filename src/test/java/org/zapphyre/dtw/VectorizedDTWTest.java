@@ -0,0 +1,31 @@
+package org.zapphyre.dtw;
+
+import org.junit.jupiter.api.Test;
+import org.zapphyre.model.PolarCoords;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VectorizedDTWTest {
+
+    @Test
+    void testCompute_equalsSimpleDtw() {
+        Random random = new Random(31);
+        SimpleDTW reference = new SimpleDTW(new PolarDistanceFunction());
+        VectorizedDTW vector = VectorizedDTW.create();
+        VectorizedDTW scalar = VectorizedDTW.scalar();
+        assertTrue(vector.isVectorized(), "surefire runs with --add-modules jdk.incubator.vector");
+
+        for (int round = 0; round < 30; round++) {
+            List<PolarCoords> s1 = SimpleDTWTest.trace(random, 1 + random.nextInt(120));
+            List<PolarCoords> s2 = SimpleDTWTest.trace(random, 1 + random.nextInt(120));
+            double expected = reference.compute(s1, s2);
+
+            assertEquals(expected, vector.compute(s1, s2), expected * 1e-12);
+            assertEquals(expected, scalar.compute(s1, s2), expected * 1e-12);
+        }
+        assertEquals(0.0, vector.compute(List.of(), List.of()));
+    }
+}
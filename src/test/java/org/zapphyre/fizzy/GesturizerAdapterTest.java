@@ -0,0 +1,61 @@
+package org.zapphyre.fizzy;
+
+import org.junit.jupiter.api.Test;
+import org.zapphyre.model.PolarCoords;
+import org.zapphyre.model.error.GestureTimeoutException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GesturizerAdapterTest {
+
+    @Test
+    void testFinishAfterFirst_failsAfterConfiguredTimeout() {
+        GesturizerAdapter<PolarCoords> adapter = new GesturizerAdapter<>(Gesturizer.withDefaults(), Function.identity(),
+                Duration.ofMillis(50), Schedulers.parallel());
+
+        long start = System.nanoTime();
+        assertThrows(GestureTimeoutException.class,
+                () -> Mono.create(adapter.finishAfterFirst(Flux.never())).block(Duration.ofSeconds(5)));
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(2).toNanos());
+        adapter.dispose();
+    }
+
+    @Test
+    void testFinishAfterFirst_pendingGesturesShareTimerThreads() {
+        Scheduler timer = Schedulers.newParallel("gesture-timeout", 2);
+        GesturizerAdapter<PolarCoords> adapter = new GesturizerAdapter<>(Gesturizer.withDefaults(), Function.identity(),
+                Duration.ofMinutes(1), timer);
+        List<Disposable> pending = new ArrayList<>();
+        try {
+            // enough gestures for the round-robin parallel schedulers to have started every worker
+            int warmUp = Math.max(10, 2 * Runtime.getRuntime().availableProcessors());
+            pend(adapter, pending, warmUp);
+            int threadsFew = Thread.activeCount();
+
+            pend(adapter, pending, 10_000 - warmUp);
+            int threadsMany = Thread.activeCount();
+
+            assertTrue(threadsMany <= threadsFew,
+                    threadsFew + " threads at " + warmUp + " pending gestures, " + threadsMany + " at 10000");
+        } finally {
+            pending.forEach(Disposable::dispose);
+            timer.dispose();
+        }
+    }
+
+    private static void pend(GesturizerAdapter<PolarCoords> adapter, List<Disposable> pending, int gestures) {
+        for (int i = 0; i < gestures; i++) {
+            pending.add(Mono.create(adapter.finishAfterFirst(Flux.<PolarCoords>never())).subscribe());
+        }
+    }
+}
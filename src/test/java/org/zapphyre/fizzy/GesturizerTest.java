@@ -0,0 +1,86 @@
+package org.zapphyre.fizzy;
+
+import org.junit.jupiter.api.Test;
+import org.zapphyre.fizzy.matcher.Matcher;
+import org.zapphyre.fizzy.matcher.MatchSession;
+import org.zapphyre.fizzy.model.MatchDef;
+import org.zapphyre.fizzy.model.ToleranceConfig;
+import org.zapphyre.model.PolarCoords;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GesturizerTest {
+
+    private final Gesturizer gesturizer = Gesturizer.builder().gestureDuration(250).build();
+
+    @Test
+    void testDirectionCompose_spellsPathComposePaths() throws InterruptedException {
+        List<String> paths = new CopyOnWriteArrayList<>();
+        CountDownLatch bothPaths = new CountDownLatch(2);
+        gesturizer.pathCompose(twoGestures()).gestureCb(path -> {
+            paths.add(path);
+            bothPaths.countDown();
+        });
+
+        List<String> spelled = gesturizer.directionCompose(twoGestures())
+                .concatMap(gesture -> gesture.map(String::valueOf).reduce("", String::concat))
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        assertTrue(bothPaths.await(5, TimeUnit.SECONDS), paths.toString()); // pathCompose calls back on its own
+        assertEquals(paths, spelled);
+        assertTrue(paths.getFirst().startsWith(gesturizer.getPathBegin()));
+    }
+
+    @Test
+    void testDirectionCompose_sessionScoresLikeMatch() {
+        Matcher<String> matcher = Matcher.<String>create(List.of(
+                        MatchDef.<String>builder().key("out-and-back").knownValues(List.of("0022")).build()))
+                .withTolerances(ToleranceConfig.builder()
+                        .frequencyTolerancePercent(20.0)
+                        .orderEditDistanceRatio(0.5)
+                        .maxConsecutiveDrop(1)
+                        .build());
+        matcher.session().accept('0'); // warm up, so the first stroke is not stretched past an idle window
+
+        List<String> scored = gesturizer.directionCompose(twoGestures())
+                .concatMap(gesture -> {
+                    MatchSession<String> session = matcher.session();
+                    StringBuilder path = new StringBuilder();
+                    return gesture.doOnNext(c -> {
+                                session.accept(c);
+                                path.append(c);
+                            })
+                            .then(Mono.fromCallable(() -> {
+                                assertEquals(matcher.match(path.toString()), session.results());
+                                return path.toString();
+                            }));
+                })
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        assertEquals(2, scored.size(), scored.toString());
+    }
+
+    /**
+     * Two strokes out along the x axis and back, separated and followed by idle gaps longer than a gesture window
+     * and out of phase with the window boundaries. Hot, like a joystick: the window and the sample subscription of a
+     * compose see the very same samples.
+     */
+    private static Flux<PolarCoords> twoGestures() {
+        Flux<PolarCoords> stroke = Flux.just(0, 4_000, 8_000, 12_000, 8_000, 4_000, 0)
+                .map(r -> PolarCoords.builder().radius(r).theta(0.1).build());
+        return Flux.concat(stroke, Mono.delay(Duration.ofMillis(1_100)).thenMany(stroke),
+                Mono.delay(Duration.ofMillis(1_100)).then(Mono.<PolarCoords>empty()))
+                .publish()
+                .autoConnect(2);
+    }
+}
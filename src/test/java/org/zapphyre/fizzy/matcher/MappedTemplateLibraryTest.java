@@ -0,0 +1,74 @@
+package org.zapphyre.fizzy.matcher;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.zapphyre.fizzy.model.MatchDef;
+import org.zapphyre.fizzy.model.ToleranceConfig;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappedTemplateLibraryTest {
+
+    private final ToleranceConfig config = ToleranceConfig.builder()
+            .frequencyTolerancePercent(20.0)
+            .orderEditDistanceRatio(0.5)
+            .maxConsecutiveDrop(1)
+            .build();
+
+    @Test
+    void testMappedLibrary_matchesLikeSourceMatcher(@TempDir Path dir) {
+        Random random = new Random(17);
+        Matcher<Integer> matcher = Matcher.<Integer>create(IntStream.range(0, 40)
+                        .mapToObj(key -> MatchDef.<Integer>builder()
+                                .key(key)
+                                .knownValues(List.of(MatcherTest.randomPath(random), MatcherTest.randomPath(random)))
+                                .build())
+                        .toList())
+                .withTolerances(config);
+
+        Path file = dir.resolve("templates.bin");
+        MappedTemplateLibrary.write(matcher, file, String::valueOf);
+
+        try (MappedTemplateLibrary<Integer> library = MappedTemplateLibrary.open(file, config, Integer::valueOf)) {
+            assertEquals(matcher.getTemplates().size(), library.size());
+
+            for (int i = 0; i < 20; i++) {
+                String input = MatcherTest.randomPath(random);
+                assertEquals(matcher.match(input), library.match(input));
+                assertEquals(matcher.match(input, 3), library.match(input, 3));
+                assertEquals(matcher.match(input, 100), library.match(input, 100));
+            }
+        }
+    }
+
+    @Test
+    void testOpen_rejectsOtherDropAndForeignFiles(@TempDir Path dir) throws Exception {
+        Matcher<String> matcher = Matcher.<String>create(List.of(
+                        MatchDef.<String>builder().key("a").knownValues(List.of("0022")).build()))
+                .withTolerances(config);
+        Path file = dir.resolve("templates.bin");
+        MappedTemplateLibrary.write(matcher, file, key -> key);
+
+        ToleranceConfig otherDrop = ToleranceConfig.builder().maxConsecutiveDrop(2).build();
+        assertThrows(IllegalArgumentException.class, () -> MappedTemplateLibrary.open(file, otherDrop, key -> key));
+
+        Path foreign = Files.writeString(dir.resolve("foreign.bin"), "not a library at all");
+        assertThrows(IllegalArgumentException.class, () -> MappedTemplateLibrary.open(foreign, config, key -> key));
+
+        byte[] bytes = Files.readAllBytes(file);
+        Path truncated = Files.write(dir.resolve("truncated.bin"), Arrays.copyOf(bytes, 40));
+        assertThrows(IllegalArgumentException.class, () -> MappedTemplateLibrary.open(truncated, config, key -> key));
+
+        ByteBuffer.wrap(bytes).putInt(16, -1); // known value count
+        Path negative = Files.write(dir.resolve("negative.bin"), bytes);
+        assertThrows(IllegalArgumentException.class, () -> MappedTemplateLibrary.open(negative, config, key -> key));
+    }
+}
@@ -0,0 +1,63 @@
+package org.zapphyre.fizzy.matcher;
+
+import org.junit.jupiter.api.Test;
+import org.zapphyre.fizzy.model.MatchDef;
+import org.zapphyre.fizzy.model.ToleranceConfig;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MatchCacheTest {
+
+    private final ToleranceConfig config = ToleranceConfig.builder()
+            .frequencyTolerancePercent(20.0)
+            .orderEditDistanceRatio(0.5)
+            .maxConsecutiveDrop(1)
+            .build();
+
+    private final Matcher<String> matcher = Matcher.<String>create(List.of(
+                    MatchDef.<String>builder().key("up").knownValues(List.of("0022")).build(),
+                    MatchDef.<String>builder().key("down").knownValues(List.of("0044")).build()))
+            .withTolerances(config);
+
+    @Test
+    void testMatch_inputsWithSameFilteredRunsShareEntry() {
+        MatchCache<String> cache = MatchCache.of(matcher, 10);
+
+        assertEquals(matcher.match("00222"), cache.match("00222"));
+        assertEquals(matcher.match("003222"), cache.match("003222")); // lone 3 is filtered out
+
+        assertEquals(1, cache.misses());
+        assertEquals(1, cache.hits());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testMatch_evictsLeastRecentlyUsed() {
+        MatchCache<String> cache = MatchCache.of(matcher, 2);
+
+        cache.match("0022");
+        cache.match("0044");
+        cache.match("0022");
+        cache.match("0033");
+        cache.match("0022");
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.evictions());
+        assertEquals(2, cache.hits());
+    }
+
+    @Test
+    void testMatch_invalidatedWhenRegistryChanges() {
+        TemplateRegistry<String> registry = new TemplateRegistry<>(matcher);
+        MatchCache<String> cache = MatchCache.of(registry, 10);
+
+        cache.match("0033");
+        registry.add(MatchDef.<String>builder().key("left").knownValues(List.of("0033")).build());
+
+        assertEquals(registry.match("0033"), cache.match("0033"));
+        assertEquals("left", cache.match("0033").get(0).getKey());
+        assertEquals(2, cache.misses());
+    }
+}
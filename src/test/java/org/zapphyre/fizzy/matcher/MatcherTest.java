@@ -2,11 +2,20 @@ package org.zapphyre.fizzy.matcher;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.zapphyre.fizzy.model.CompiledTemplate;
+import org.zapphyre.fizzy.model.MatchDef;
+import org.zapphyre.fizzy.model.MatchResult;
 import org.zapphyre.fizzy.model.Run;
 import org.zapphyre.fizzy.model.ToleranceConfig;
+import reactor.core.publisher.Flux;
 
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -138,4 +147,253 @@ public class MatcherTest {
         double score = matcher.computeMatchScore(input, known);
         assertEquals(1.0, score, 0.001);
     }
+
+    @Test
+    void testTemplates_collapsedKnownValuesShareTemplate() {
+        Matcher<String> compiled = Matcher.<String>create(List.of(
+                        MatchDef.<String>builder().key("a").knownValues(List.of("1122", "11322")).build(),
+                        MatchDef.<String>builder().key("b").knownValues(List.of("3311322", "3344")).build()))
+                .withTolerances(matcher.getToleranceConfig());
+
+        assertEquals(3, compiled.getTemplates().size());
+        assertEquals(4, compiled.getTemplates().getKnownValues().size());
+
+        List<MatchResult<String>> results = compiled.match("112222");
+        assertEquals(4, results.size());
+        assertEquals("1122", results.get(0).getKnownString());
+        assertEquals("11322", results.get(1).getKnownString());
+        assertEquals(results.get(0).getMatchPercentage(), results.get(1).getMatchPercentage(), 0.0);
+        assertEquals("3344", results.get(3).getKnownString());
+    }
+
+    @Test
+    void testMatchTopK_sameAsFullRanking() {
+        Random random = new Random(42);
+        Matcher<Integer> library = Matcher.<Integer>create(IntStream.range(0, 50)
+                        .mapToObj(key -> MatchDef.<Integer>builder()
+                                .key(key)
+                                .knownValues(List.of(randomPath(random), randomPath(random)))
+                                .build())
+                        .toList())
+                .withTolerances(matcher.getToleranceConfig());
+
+        for (int i = 0; i < 20; i++) {
+            String input = randomPath(random);
+            List<MatchResult<Integer>> full = library.match(input);
+
+            assertEquals(full.subList(0, 5), library.match(input, 5));
+            assertEquals(full.stream().filter(r -> r.getMatchPercentage() >= 60.0).toList(), library.match(input, 60.0));
+        }
+    }
+
+    @Test
+    void testMatchThreshold_qGramIndexKeepsEveryQualifyingResult() {
+        Random random = new Random(21);
+        List<MatchDef<Integer>> defs = IntStream.range(0, 200)
+                .mapToObj(key -> MatchDef.<Integer>builder().key(key).knownValues(List.of(randomPath(random))).build())
+                .toList();
+        Matcher<Integer> scan = Matcher.<Integer>builder().matchDefs(defs).toleranceConfig(matcher.getToleranceConfig()).build();
+        Matcher<Integer> indexed = Matcher.<Integer>builder().matchDefs(defs).toleranceConfig(matcher.getToleranceConfig())
+                .qGram(2)
+                .build();
+
+        for (int i = 0; i < 50; i++) {
+            String input = randomPath(random);
+            for (double threshold : new double[]{50.0, 75.0, 90.0}) {
+                assertEquals(scan.match(input, threshold), indexed.match(input, threshold));
+            }
+        }
+    }
+
+    @Test
+    void testMatch_prefixTrieScoresLikePerTemplate() {
+        Random random = new Random(23);
+        List<MatchDef<Integer>> defs = IntStream.range(0, 200)
+                .mapToObj(key -> MatchDef.<Integer>builder().key(key).knownValues(List.of("0011" + randomPath(random))).build())
+                .toList();
+        Matcher<Integer> scan = Matcher.<Integer>builder().matchDefs(defs).toleranceConfig(matcher.getToleranceConfig()).build();
+        Matcher<Integer> trie = Matcher.<Integer>builder().matchDefs(defs).toleranceConfig(matcher.getToleranceConfig())
+                .prefixTrie(true)
+                .build();
+
+        for (int i = 0; i < 50; i++) {
+            String input = "0011" + randomPath(random);
+            assertEquals(scan.match(input), trie.match(input));
+            assertEquals(scan.match(input, 80.0), trie.match(input, 80.0));
+        }
+    }
+
+    @Test
+    void testMatchAll_inInputOrderWithDuplicates() {
+        Random random = new Random(3);
+        Matcher<Integer> library = Matcher.<Integer>create(IntStream.range(0, 20)
+                        .mapToObj(key -> MatchDef.<Integer>builder().key(key).knownValues(List.of(randomPath(random))).build())
+                        .toList())
+                .withTolerances(matcher.getToleranceConfig());
+
+        List<String> inputs = IntStream.range(0, 3_000)
+                .mapToObj(i -> i % 3 == 0 ? "1122233" : randomPath(random))
+                .toList();
+        List<List<MatchResult<Integer>>> expected = inputs.stream().map(library::match).toList();
+
+        assertEquals(expected, library.matchAll(inputs));
+        assertEquals(expected, library.matchAll(Flux.fromIterable(inputs)).collectList().block());
+    }
+
+    @Test
+    void testMatchAll_throwsLikeMatchOnInvalidInput() {
+        List<String> inputs = new ArrayList<>(Collections.nCopies(100, "1122233"));
+        inputs.set(57, "11a22");
+
+        assertThrows(IllegalArgumentException.class, () -> matcher.matchAll(inputs));
+        assertThrows(IllegalArgumentException.class, () -> matcher.matchAll(inputs, Runnable::run));
+        assertThrows(IllegalArgumentException.class, () -> matcher.matchAll(Flux.fromIterable(inputs)).blockLast());
+    }
+
+    @Test
+    void testSession_sameRankingAsMatchAtEveryPrefix() {
+        Random random = new Random(5);
+        Matcher<Integer> library = Matcher.<Integer>create(IntStream.range(0, 30)
+                        .mapToObj(key -> MatchDef.<Integer>builder().key(key).knownValues(List.of(randomPath(random))).build())
+                        .toList())
+                .withTolerances(matcher.getToleranceConfig());
+
+        for (int i = 0; i < 10; i++) {
+            String path = randomPath(random);
+            MatchSession<Integer> session = library.session();
+
+            for (int end = 1; end <= path.length(); end++) {
+                session.accept(path.charAt(end - 1));
+                List<MatchResult<Integer>> expected = library.match(path.substring(0, end));
+
+                assertEquals(expected, session.results());
+                assertEquals(expected.get(0), session.leader().orElseThrow());
+            }
+        }
+    }
+
+    @Test
+    void testSession_rejectedWhenNoTemplateCanReachThreshold() {
+        Matcher<String> library = Matcher.<String>create(List.of(
+                        MatchDef.<String>builder().key("a").knownValues(List.of("1122")).build()))
+                .withTolerances(matcher.getToleranceConfig());
+
+        MatchSession<String> session = library.session().accept("11");
+        assertFalse(session.rejected(90.0));
+
+        session.accept("3344556677889900");
+        assertTrue(session.rejected(90.0));
+        assertFalse(session.rejected(0.0));
+    }
+
+    @Test
+    void testPrimitiveScore_identicalToReference() {
+        Random random = new Random(9);
+        for (int i = 0; i < 2_000; i++) {
+            String input = randomPath(random);
+            String known = randomPath(random);
+            double reference = matcher.computeMatchScore(
+                    matcher.filterRuns(matcher.parseRuns(input)), matcher.filterRuns(matcher.parseRuns(known)));
+            CompiledTemplate template = TemplateStore.compile(matcher.filterRuns(matcher.parseRuns(known)));
+
+            assertEquals(reference, matcher.computeMatchScore(matcher.scratch(input), template), 0.0);
+        }
+    }
+
+    @Test
+    void testPrimitiveScore_allocatesNothingPerTemplate() {
+        Random random = new Random(13);
+        List<CompiledTemplate> templates = IntStream.range(0, 1_000)
+                .mapToObj(i -> TemplateStore.compile(matcher.filterRuns(matcher.parseRuns(randomPath(random)))))
+                .toList();
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        InputScratch in = matcher.scratch("1122233344411");
+        double sink = 0;
+        for (int round = 0; round < 20; round++) {
+            for (CompiledTemplate template : templates) sink += matcher.computeMatchScore(in, template);
+        }
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (CompiledTemplate template : templates) sink += matcher.computeMatchScore(in, template);
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        assertTrue(sink > 0);
+        assertTrue(allocated < 1_000, "allocated " + allocated + " bytes for " + templates.size() + " templates");
+    }
+
+    @Test
+    void testSession_orderBoundCoversEveryContinuationLength() {
+        Random random = new Random(61);
+        for (double ratio : new double[]{0.1, 0.25, 0.5, 0.9}) {
+            ToleranceConfig config = ToleranceConfig.builder()
+                    .frequencyTolerancePercent(20.0)
+                    .orderEditDistanceRatio(ratio)
+                    .maxConsecutiveDrop(0)
+                    .build();
+            Matcher<Integer> library = Matcher.<Integer>create(IntStream.range(0, 20)
+                            .mapToObj(key -> MatchDef.<Integer>builder().key(key).knownValues(List.of(randomPath(random))).build())
+                            .toList())
+                    .withTolerances(config);
+
+            for (int i = 0; i < 20; i++) {
+                MatchSession<Integer> session = library.session();
+                String path = randomPath(random) + randomPath(random);
+                for (int end = 0; end < path.length(); end++) {
+                    session.accept(path.charAt(end));
+                    String continued = path.substring(0, end + 1) + randomPath(random);
+                    for (int t = 0; t < library.getTemplates().size(); t++) {
+                        double bound = session.orderScoreUpperBound(t);
+                        String known = library.getTemplates().getTemplates().get(t).getOrder();
+                        assertTrue(bound >= bruteForceOrderBound(library, session, t),
+                                "ratio " + ratio + ", template " + t + ", input " + path.substring(0, end + 1));
+                        assertTrue(bound >= library.computeOrderScore(
+                                        Matcher.order(library.filterRuns(library.parseRuns(continued))), known),
+                                "ratio " + ratio + ", template " + t + ", continuation " + continued);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testSession_orderBoundPastCeilSlack() {
+        ToleranceConfig config = ToleranceConfig.builder()
+                .frequencyTolerancePercent(20.0)
+                .orderEditDistanceRatio(0.1)
+                .maxConsecutiveDrop(0)
+                .build();
+        Matcher<String> library = Matcher.<String>create(List.of(
+                        MatchDef.<String>builder().key("a").knownValues(List.of("12")).build()))
+                .withTolerances(config);
+
+        // n = 10, m = 2, row minimum 8: one more symbol scores 1 - 9/13 = 0.308, above 1 - 8/11 at n itself
+        MatchSession<String> session = library.session().accept("1234343434");
+        assertTrue(session.orderScoreUpperBound(0) >= library.orderScore(9, 11));
+        assertFalse(session.rejected(100 * library.combine(1.0, library.orderScore(9, 11))));
+    }
+
+    /**
+     * Best order score over continuations of every length up to far past any sensible gesture, scored with the
+     * exact formula and the smallest distance the current row still allows.
+     */
+    private static double bruteForceOrderBound(Matcher<Integer> library, MatchSession<Integer> session, int template) {
+        int m = library.getTemplates().getTemplates().get(template).getOrder().length();
+        int n = session.orderLength();
+        int rowMin = session.rowMinimum(template);
+        double best = 0.0;
+        for (int length = n; length <= n + 2_000; length++) {
+            best = Math.max(best, library.orderScore(Math.max(rowMin, length - m), Math.max(length, m)));
+        }
+        return best;
+    }
+
+    static String randomPath(Random random) {
+        StringBuilder path = new StringBuilder();
+        int runs = 2 + random.nextInt(6);
+        for (int i = 0; i < runs; i++) {
+            path.append(String.valueOf(random.nextInt(5)).repeat(1 + random.nextInt(6)));
+        }
+        return path.toString();
+    }
 }
@@ -0,0 +1,62 @@
+package org.zapphyre.fizzy.matcher;
+
+import org.junit.jupiter.api.Test;
+import org.zapphyre.fizzy.model.MatchDef;
+import org.zapphyre.fizzy.model.ToleranceConfig;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TemplateRegistryTest {
+
+    private final ToleranceConfig config = ToleranceConfig.builder()
+            .frequencyTolerancePercent(20.0)
+            .orderEditDistanceRatio(0.5)
+            .maxConsecutiveDrop(1)
+            .build();
+
+    private final MatchDef<String> up = def("up", "0022", "00222");
+    private final MatchDef<String> down = def("down", "0044");
+    private final MatchDef<String> left = def("left", "0033");
+
+    @Test
+    void testChanges_matchLikeFreshMatcher() {
+        TemplateRegistry<String> registry = new TemplateRegistry<>(Matcher.create(List.of(up, down)).withTolerances(config));
+        Matcher<String> before = registry.current();
+
+        registry.add(left);
+        assertEquals(fresh(up, down, left).match("003322"), registry.match("003322"));
+
+        MatchDef<String> newUp = def("up", "0011");
+        registry.replace(newUp);
+        assertEquals(fresh(newUp, down, left).match("003322"), registry.match("003322"));
+
+        registry.remove("down");
+        assertEquals(fresh(newUp, left).match("003322"), registry.match("003322"));
+        assertEquals(List.of(newUp, left), registry.current().getMatchDefs());
+
+        // snapshots taken earlier are unaffected
+        assertEquals(fresh(up, down).match("003322"), before.match("003322"));
+    }
+
+    @Test
+    void testChanges_reuseCompiledTemplatesOfUntouchedDefinitions() {
+        TemplateRegistry<String> registry = new TemplateRegistry<>(Matcher.create(List.of(up, down)).withTolerances(config));
+        Matcher<String> before = registry.current();
+
+        Matcher<String> after = registry.add(left);
+
+        assertSame(before.getTemplates().getTemplates().get(0), after.getTemplates().getTemplates().get(0));
+        assertEquals(before.getTemplates().size() + 1, after.getTemplates().size());
+    }
+
+    @SafeVarargs
+    private Matcher<String> fresh(MatchDef<String>... defs) {
+        return Matcher.create(List.of(defs)).withTolerances(config);
+    }
+
+    private static MatchDef<String> def(String key, String... knownValues) {
+        return MatchDef.<String>builder().key(key).knownValues(List.of(knownValues)).build();
+    }
+}
@@ -0,0 +1,52 @@
+package org.zapphyre.fizzy.matcher.edit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EditDistanceTest {
+
+    private final EditDistance reference = new ClassicEditDistance();
+    private final EditDistance bitParallel = new BitParallelEditDistance();
+
+    @Test
+    void testBitParallel_knownDistances() {
+        assertEquals(0, bitParallel.distance("123", "123"));
+        assertEquals(3, bitParallel.distance("123", ""));
+        assertEquals(3, bitParallel.distance("", "123"));
+        assertEquals(3, bitParallel.distance("kitten", "sitting"));
+    }
+
+    @Test
+    void testBitParallel_equivalentToReference() {
+        Random random = new Random(7);
+        for (int i = 0; i < 5_000; i++) {
+            String s1 = randomDigits(random, random.nextInt(80));
+            String s2 = randomDigits(random, random.nextInt(80));
+            assertEquals(reference.distance(s1, s2), bitParallel.distance(s1, s2), s1 + " / " + s2);
+        }
+    }
+
+    @Test
+    void testBitParallel_limitIsExactOrExceeded() {
+        Random random = new Random(11);
+        for (int i = 0; i < 5_000; i++) {
+            String s1 = randomDigits(random, random.nextInt(20));
+            String s2 = randomDigits(random, random.nextInt(20));
+            int limit = random.nextInt(12);
+            int exact = reference.distance(s1, s2);
+            int limited = bitParallel.distance(s1, s2, limit);
+
+            if (exact <= limit) assertEquals(exact, limited);
+            else assertTrue(limited > limit);
+        }
+    }
+
+    static String randomDigits(Random random, int length) {
+        StringBuilder s = new StringBuilder();
+        for (int i = 0; i < length; i++) s.append((char) ('0' + random.nextInt(5)));
+        return s.toString();
+    }
+}
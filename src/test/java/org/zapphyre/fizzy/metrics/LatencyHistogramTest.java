@@ -0,0 +1,29 @@
+package org.zapphyre.fizzy.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    void testPercentile_withinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long v = 1; v <= 100_000; v++) histogram.record(v * 1_000);
+
+        assertEquals(100_000, histogram.count());
+        assertEquals(100_000_000, histogram.max());
+        assertEquals(50_000_000, histogram.percentile(50), 50_000_000 * 0.016);
+        assertEquals(99_000_000, histogram.percentile(99), 99_000_000 * 0.016);
+        assertEquals(100_000_000, histogram.percentile(100));
+    }
+
+    @Test
+    void testBucket_roundTripsAcrossWholeRange() {
+        for (long v : new long[]{0, 1, 127, 128, 129, 1_000, 123_456_789, Long.MAX_VALUE}) {
+            long highest = LatencyHistogram.highestEquivalent(LatencyHistogram.bucket(v));
+            assertTrue(highest >= v);
+            assertTrue(highest - v <= Math.max(0, v / 64), v + " -> " + highest);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.zapphyre.jfr;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.zapphyre.dtw.PolarDistanceFunction;
+import org.zapphyre.dtw.SimpleDTW;
+import org.zapphyre.fizzy.grid.Node;
+import org.zapphyre.fizzy.matcher.Matcher;
+import org.zapphyre.fizzy.model.MatchDef;
+import org.zapphyre.fizzy.model.ToleranceConfig;
+import org.zapphyre.model.ENextNodeDirection;
+import org.zapphyre.model.PolarCoords;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FlightRecorderEventsTest {
+
+    @Test
+    void testEvents_recordedWhenThresholdLowered() throws Exception {
+        Matcher<String> matcher = Matcher.<String>create(List.of(
+                        MatchDef.<String>builder().key("a").knownValues(List.of("1122", "3344")).build()))
+                .withTolerances(ToleranceConfig.builder()
+                        .frequencyTolerancePercent(20.0)
+                        .orderEditDistanceRatio(0.5)
+                        .maxConsecutiveDrop(1)
+                        .build());
+        List<PolarCoords> trace = List.of(
+                PolarCoords.builder().radius(1).theta(0).build(),
+                PolarCoords.builder().radius(2).theta(1).build(),
+                PolarCoords.builder().radius(3).theta(2).build());
+
+        Path file = Files.createTempFile("events", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(MatchEvent.class).withThreshold(Duration.ZERO);
+            recording.enable(DtwEvent.class).withThreshold(Duration.ZERO);
+            recording.enable(NodeTransitionEvent.class);
+            recording.start();
+
+            matcher.match("112233");
+            new SimpleDTW(new PolarDistanceFunction()).compute(trace, trace);
+            Node root = new Node(1_000, Math.toRadians(30), 0, 0, ENextNodeDirection.CENTER, "0");
+            for (int stroke = 0; stroke < 2; stroke++) { // the second stroke reuses the node the first one created
+                root.movement(root.directionFromTheta(PolarCoords.builder().radius(5_000).theta(0.1).build()));
+            }
+
+            recording.stop();
+            recording.dump(file);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            RecordedEvent match = events.stream()
+                    .filter(e -> e.getEventType().getName().equals("org.zapphyre.Match"))
+                    .findFirst().orElseThrow();
+            assertEquals(3, match.getInt("inputLength"));
+            assertEquals(2, match.getInt("templatesScored"));
+
+            RecordedEvent dtw = events.stream()
+                    .filter(e -> e.getEventType().getName().equals("org.zapphyre.DTW"))
+                    .findFirst().orElseThrow();
+            assertEquals(3, dtw.getInt("length1"));
+
+            List<RecordedEvent> transitions = events.stream()
+                    .filter(e -> e.getEventType().getName().equals("org.zapphyre.NodeTransition"))
+                    .toList();
+            assertEquals(2, transitions.size());
+            assertEquals("0", transitions.getFirst().getString("fromPath"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}